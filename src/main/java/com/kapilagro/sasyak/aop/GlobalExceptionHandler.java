@@ -1,7 +1,9 @@
 package com.kapilagro.sasyak.aop;
 
+import com.kapilagro.sasyak.exceptions.PasswordHashingBusyException;
 import com.kapilagro.sasyak.exceptions.TenantAlreadyExistsException;
 import com.kapilagro.sasyak.model.CreateTenantResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,6 +20,15 @@ public class GlobalExceptionHandler {
                         .build());
     }
 
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<CreateTenantResponse> handleHashingBusy(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(CreateTenantResponse.builder()
+                        .message(ex.getMessage())
+                        .build());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<CreateTenantResponse> handleGeneric(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
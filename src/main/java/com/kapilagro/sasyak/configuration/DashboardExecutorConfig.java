@@ -0,0 +1,17 @@
+package com.kapilagro.sasyak.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class DashboardExecutorConfig {
+
+    // One virtual thread per dashboard query; AdminService caps how many run at once
+    @Bean(destroyMethod = "close")
+    public ExecutorService dashboardExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -4,6 +4,7 @@ import com.kapilagro.sasyak.model.User;
 import com.kapilagro.sasyak.services.MyUserDetailsService;
 import com.kapilagro.sasyak.services.MyUserPrincipal;
 import com.kapilagro.sasyak.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -45,12 +46,25 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         jwt = authHeader.substring(7);
         try {
-            userEmail = jwtUtil.extractUsername(jwt);
+            // Verifies signature and expiry once; repeat requests with the same token hit the claims cache
+            Claims claims = jwtUtil.parseAccessToken(jwt);
+            userEmail = claims.getSubject();
 
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null
+                    && jwtUtil.isClaimsToken(claims)) {
+                // Self-contained token: build the principal from its claims without touching the database.
+                // A stale epoch leaves the request unauthenticated so the client refreshes its token.
+                if (jwtUtil.isCurrent(claims)) {
+                    User user = jwtUtil.userFromClaims(claims);
+                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                            user, null, MyUserPrincipal.authoritiesFor(user.getRole()));
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            } else if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
 
-                if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (jwtUtil.isValidFor(claims, userDetails)) {
                     // Create authentication token with user principal
                     UsernamePasswordAuthenticationToken authToken;
 
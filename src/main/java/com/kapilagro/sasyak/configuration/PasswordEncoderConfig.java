@@ -1,17 +1,30 @@
 package com.kapilagro.sasyak.configuration;
 
+import com.kapilagro.sasyak.utils.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 @Order(0) // Ensure this bean is created before others
 public class PasswordEncoderConfig {
 
+    // Raising the cost takes effect for existing users on their next login (see UserService.authenticate).
+    // Hashing runs on its own pool sized to the CPUs (0 = one thread per core) so it cannot starve request threads.
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-strength:12}") int strength,
+                                           @Value("${security.password.hash-threads:0}") int threads,
+                                           @Value("${security.password.hash-queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password.retry-after:2s}") Duration retryAfter,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity,
+                retryAfter, meterRegistry);
     }
-}
\ No newline at end of file
+}
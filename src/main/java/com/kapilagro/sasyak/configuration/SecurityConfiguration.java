@@ -1,5 +1,6 @@
 package com.kapilagro.sasyak.configuration;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -55,9 +56,15 @@ public class SecurityConfiguration {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(authorize -> {
                     authorize
+                            // Async dispatches continue a request that was already authorized on its first
+                            // dispatch; JwtAuthFilter does not run again for them. Needed by the streamed
+                            // task export (/api/tasks/export) and the notification event stream.
+                            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                             .requestMatchers(HttpMethod.OPTIONS, "/api/**").permitAll()
                             .requestMatchers("/api/auth/**").permitAll()
                             .requestMatchers("/api/tenants").hasRole("SUPER_ADMIN")
+                            // Metrics span every tenant (auth, caches, pools); platform operators only
+                            .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("SUPER_ADMIN")
                             .requestMatchers("/api/admin/**").hasRole("ADMIN")
                             .anyRequest().authenticated();
                 })
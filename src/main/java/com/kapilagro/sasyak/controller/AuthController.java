@@ -1,10 +1,14 @@
 package com.kapilagro.sasyak.controller;
 
+import com.kapilagro.sasyak.exceptions.PasswordHashingBusyException;
 import com.kapilagro.sasyak.model.AuthResponse;
 import com.kapilagro.sasyak.model.TokenRequest;
 import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.services.MyUserPrincipal;
+import com.kapilagro.sasyak.services.RefreshTokenService;
 import com.kapilagro.sasyak.services.UserService;
 import com.kapilagro.sasyak.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,18 +28,21 @@ public class AuthController {
     private final UserDetailsService userDetailsService;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final RefreshTokenService refreshTokenService;
 
     // Constructor injection instead of field injection
     public AuthController(
             AuthenticationManager authenticationManager,
             JwtUtil jwtUtil,
             UserDetailsService userDetailsService,
-            UserService userService, PasswordEncoder passwordEncoder) {
+            UserService userService, PasswordEncoder passwordEncoder,
+            RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
         this.userService = userService;
         this.passwordEncoder=passwordEncoder;
+        this.refreshTokenService = refreshTokenService;
     }
 
 
@@ -86,6 +93,9 @@ public class AuthController {
 
         } catch (BadCredentialsException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        } catch (PasswordHashingBusyException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -122,6 +132,9 @@ public class AuthController {
                     .build();
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingBusyException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error during registration: " + e.getMessage());
@@ -131,21 +144,16 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> loginUser(@RequestBody User user) {
         try {
-            // Ensure the test user has an encoded password
-            userService.setEncodedPasswordForTestUser(user.getEmail());
-
-            // Authenticate user
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(user.getEmail(), user.getPassword())
-            );
-
-            // Get user details
-            UserDetails userDetails = userDetailsService.loadUserByUsername(user.getEmail());
-            User userFromDb = userService.getUserByUserEmail(user.getEmail());
+            // One user lookup and one password check; the principal is reused for the tokens
+            MyUserPrincipal principal = userService.authenticate(user.getEmail(), user.getPassword());
+            if (principal == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+            }
+            User userFromDb = principal.getUser();
 
             // Generate tokens
-            String accessToken = jwtUtil.generateAccessToken(userDetails);
-            String refreshToken = jwtUtil.generateRefreshToken(userDetails);
+            String accessToken = jwtUtil.generateAccessToken(principal);
+            String refreshToken = jwtUtil.generateRefreshToken(principal);
 
             // Create response
             AuthResponse response = AuthResponse.builder()
@@ -158,8 +166,9 @@ public class AuthController {
                     .build();
 
             return ResponseEntity.status(HttpStatus.OK).body(response);
-        } catch (BadCredentialsException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
+        } catch (PasswordHashingBusyException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error during login: " + e.getMessage());
@@ -170,27 +179,30 @@ public class AuthController {
     @PostMapping("/refresh-token")
     public ResponseEntity<?> refreshToken(@RequestBody TokenRequest request) {
         try {
-            // Extract username from refresh token
-            String username = jwtUtil.extractUsernameFromRefreshToken(request.getRefreshToken());
+            // Signature and expiry are checked here; an invalid token throws
+            Claims claims = jwtUtil.parseRefreshToken(request.getRefreshToken());
+            String username = claims.getSubject();
 
             if (username == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
             }
 
-            // Load user details
+            // Each refresh token is single-use; a second use means it was revoked or replayed
+            if (!refreshTokenService.consume(claims.get(JwtUtil.CLAIM_TOKEN_ID, String.class), claims.getExpiration())) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Refresh token has been revoked");
+            }
+
+            // Load user details (served from the principal cache)
             UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-            // Validate refresh token
-            if (!jwtUtil.validateRefreshToken(request.getRefreshToken(), userDetails)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired refresh token");
-            }
-            // Generate new access token
+            // Rotate: new access token and a new refresh token replacing the consumed one
             String accessToken = jwtUtil.generateAccessToken(userDetails);
+            String refreshToken = jwtUtil.generateRefreshToken(userDetails);
 
             // Create response
             AuthResponse response = AuthResponse.builder()
                     .accessToken(accessToken)
-                    .refreshToken(request.getRefreshToken()) // Return the same refresh token
+                    .refreshToken(refreshToken)
                     .email(username)
                     .build();
 
@@ -199,4 +211,15 @@ public class AuthController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody TokenRequest request) {
+        try {
+            Claims claims = jwtUtil.parseRefreshToken(request.getRefreshToken());
+            refreshTokenService.revoke(claims.get(JwtUtil.CLAIM_TOKEN_ID, String.class), claims.getExpiration());
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid refresh token");
+        }
+    }
+}
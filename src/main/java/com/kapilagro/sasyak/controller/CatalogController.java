@@ -1,17 +1,24 @@
 package com.kapilagro.sasyak.controller;
 
+import com.kapilagro.sasyak.model.CatalogChangesResponse;
+import com.kapilagro.sasyak.model.CatalogImportResponse;
 import com.kapilagro.sasyak.model.CatalogItem;
 import com.kapilagro.sasyak.model.CatalogRequest;
 import com.kapilagro.sasyak.model.CatalogResponse;
+import com.kapilagro.sasyak.model.CatalogSnapshot;
 import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.services.CatalogImportService;
 import com.kapilagro.sasyak.services.CatalogService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -43,9 +50,28 @@ public class CatalogController {
 
 
 
+    // Strong ETag for a catalog representation: tenant and catalog version. Versions are counted
+    // per tenant, so the tenant id keeps a device that switches tenants from matching its old copy.
+    private String catalogETag(UUID tenantId, CatalogSnapshot snapshot) {
+        return "\"" + tenantId + "-" + snapshot.getVersion() + "\"";
+    }
+
+    // Serve from the client's copy when its ETag still matches, otherwise the body with the ETag
+    private ResponseEntity<?> withETag(WebRequest request, UUID tenantId, CatalogSnapshot snapshot, Object body) {
+        String etag = catalogETag(tenantId, snapshot);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body);
+    }
+
     @Autowired
     private CatalogService catalogService;
 
+    @Autowired
+    private CatalogImportService catalogImportService;
+
 
     @PostMapping("")
     public ResponseEntity<?> createCatalogItem(@RequestBody CatalogRequest catalogRequest) {
@@ -67,15 +93,42 @@ public class CatalogController {
         }
     }
 
+    // Create or update catalog items in bulk from a CSV (category,value,details) or NDJSON
+    // request body, streamed into the database; invalid rows are reported and skipped
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importCatalog(@RequestParam(defaultValue = "csv") String format, HttpServletRequest request) {
+        if (!CatalogImportService.isSupportedFormat(format)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported import format: " + format);
+        }
+        try {
+            UUID tenantId = getCurrentUserTenantId();
+            int currentUserId = getCurrentUserId();
+
+            CatalogImportResponse response = catalogImportService.importCatalog(
+                    request.getInputStream(), format, currentUserId, tenantId);
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid input: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error importing catalog: " + e.getMessage());
+        }
+    }
+
     @GetMapping("")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getCatalog() {
+    public ResponseEntity<?> getCatalog(WebRequest request) {
         try {
             UUID tenantId = getCurrentUserTenantId();
 
-            List<CatalogResponse> catalogs = catalogService.getAllCatalogByTenant(tenantId);
+            CatalogSnapshot snapshot = catalogService.getCatalogSnapshot(tenantId);
 
-            return ResponseEntity.ok(catalogs);
+            return withETag(request, tenantId, snapshot, snapshot.getItems());
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -85,6 +138,26 @@ public class CatalogController {
     }
 
 
+    @GetMapping("/changes")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getCatalogChanges(@RequestParam("since") long since) {
+        try {
+            UUID tenantId = getCurrentUserTenantId();
+
+            CatalogChangesResponse changes = catalogService.getCatalogChanges(tenantId, since);
+
+            return ResponseEntity.ok(changes);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid version: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error fetching catalog changes: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> deleteCatalog(@PathVariable("id") int id) {
@@ -109,18 +182,20 @@ public class CatalogController {
 
     @GetMapping("/{category}")
     @PreAuthorize("hasRole('ADMIN','MANAGER', 'SUPERVISOR')")
-    public ResponseEntity<?> getCatalogByCategory(@PathVariable("category") String category) {
+    public ResponseEntity<?> getCatalogByCategory(@PathVariable("category") String category, WebRequest request) {
         try {
             UUID tenantId = getCurrentUserTenantId();
 
-            List<CatalogItem> catalogItems = catalogService.getCatalogByCategory(category, tenantId);
+            // Items and ETag come from the same snapshot
+            CatalogSnapshot snapshot = catalogService.getCatalogSnapshot(tenantId);
+            List<CatalogItem> catalogItems = snapshot.getItemsByCategory(category);
 
             if (catalogItems.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("No catalog items found for category: " + category);
             }
 
-            return ResponseEntity.ok(catalogItems);
+            return withETag(request, tenantId, snapshot, catalogItems);
 
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -134,13 +209,13 @@ public class CatalogController {
 
     @GetMapping("/categories")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getDistinctCategories() {
+    public ResponseEntity<?> getDistinctCategories(WebRequest request) {
         try {
             UUID tenantId = getCurrentUserTenantId();
 
-            List<String> categories = catalogService.getDistinctCategories(tenantId);
+            CatalogSnapshot snapshot = catalogService.getCatalogSnapshot(tenantId);
 
-            return ResponseEntity.ok(categories);
+            return withETag(request, tenantId, snapshot, snapshot.getCategories());
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -5,18 +5,15 @@ import com.kapilagro.sasyak.model.*;
 import com.kapilagro.sasyak.services.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 
@@ -26,9 +23,6 @@ public class NotificationController {
     @Autowired
     private NotificationService notificationService;
 
-    @Autowired
-    private JdbcTemplate jdbcTemplate;
-
     // Helper method to get the current user from the authentication context
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -48,54 +42,34 @@ public class NotificationController {
         }
     }
 
-    // Get notifications for current user
+    // Server-sent events: "notification" for each new notification and "unread-count" whenever it changes
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications() {
+        try {
+            User currentUser = getCurrentUser();
+            return ResponseEntity.ok(notificationService.openStream(currentUser.getUserId()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Get notifications for current user. Pass cursor= (empty for the first page, then nextCursor)
+    // for keyset paging; page/size still work for older clients.
     @GetMapping
     public ResponseEntity<?> getNotifications(
             @RequestParam(defaultValue = "false") boolean onlyUnread,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean includeTotal) {
         try {
             User currentUser = getCurrentUser();
-            int userId = currentUser.getUserId();
-
-            // Create a SQL query with optional filter for unread
-            String sql = "SELECT * FROM notifications WHERE user_id = ?";
-            if (onlyUnread) {
-                sql += " AND is_read = false";
-            }
-            sql += " ORDER BY created_at DESC LIMIT ? OFFSET ?";
-
-            // Define a row mapper for notifications
-            RowMapper<Map<String, Object>> rowMapper = (rs, rowNum) -> {
-                Map<String, Object> notification = Map.of(
-                        "id", rs.getInt("notification_id"),
-                        "title", rs.getString("title"),
-                        "message", rs.getString("message"),
-                        "taskId", rs.getObject("task_id", Integer.class),
-                        "isRead", rs.getBoolean("is_read"),
-                        "createdAt", rs.getTimestamp("created_at").toLocalDateTime()
-                );
-                return notification;
-            };
-
-            int offset = page * size;
-            List<Map<String, Object>> notifications = jdbcTemplate.query(
-                    sql, rowMapper, userId, size, offset
-            );
-
-            // Count total notifications
-            String countSql = "SELECT COUNT(*) FROM notifications WHERE user_id = ?";
-            if (onlyUnread) {
-                countSql += " AND is_read = false";
-            }
-            int totalCount = jdbcTemplate.queryForObject(countSql, Integer.class, userId);
-
-            return ResponseEntity.ok(Map.of(
-                    "notifications", notifications,
-                    "totalCount", totalCount,
-                    "currentPage", page,
-                    "totalPages", (int) Math.ceil((double) totalCount / size)
-            ));
+            // Offset pages keep their totals; cursor pages skip them unless asked
+            boolean withTotal = includeTotal != null ? includeTotal : cursor == null;
+            return ResponseEntity.ok(notificationService.getNotifications(
+                    currentUser.getUserId(), onlyUnread, cursor, page, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving notifications: " + e.getMessage());
@@ -110,10 +84,7 @@ public class NotificationController {
             int userId = currentUser.getUserId();
 
             // Verify the notification belongs to the current user
-            String verifySql = "SELECT COUNT(*) FROM notifications WHERE notification_id = ? AND user_id = ?";
-            int count = jdbcTemplate.queryForObject(verifySql, Integer.class, notificationId, userId);
-
-            if (count == 0) {
+            if (!notificationService.isOwner(notificationId, userId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You don't have permission to access this notification");
             }
@@ -1,5 +1,6 @@
 package com.kapilagro.sasyak.controller;
 
+import com.kapilagro.sasyak.exceptions.PasswordHashingBusyException;
 import com.kapilagro.sasyak.exceptions.TenantAlreadyExistsException;
 import com.kapilagro.sasyak.model.*;
 import com.kapilagro.sasyak.services.EmailService;
@@ -120,6 +121,9 @@ public class SuperAdminController {
             System.out.println("✅ [createTenant] Completed in " + (System.currentTimeMillis() - start) + "ms");
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
+        } catch (PasswordHashingBusyException e) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw e;
         } catch (Exception e) {
             System.err.println("❌ [createTenant] Exception occurred: " + e.getMessage());
             e.printStackTrace();
@@ -40,16 +40,16 @@ public class TaskAdviceController {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            // Check if user has access to the task
-            if (!taskService.userHasAccessToTask(currentUser.getUserId(), request.getTaskId(), tenantId)) {
+            // Load the task only if the user has access to it
+            Optional<Task> taskOpt = taskService.getTaskForUser(request.getTaskId(), currentUser.getUserId(), tenantId);
+            if (taskOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You don't have permission to provide advice for this task");
             }
 
             TaskAdvice createdAdvice = taskAdviceService.createAdvice(
-                    tenantId,
+                    taskOpt.get(),
                     currentUser.getUserId(),
-                    request.getTaskId(),
                     request.getAdviceText()
             );
             TaskAdviceDTO adviceDTO = taskAdviceService.convertToDTO(createdAdvice);
@@ -100,9 +100,7 @@ public class TaskAdviceController {
 
             List<TaskAdvice> advices = taskAdviceService.getAdviceByManager(tenantId, currentUser.getUserId());
 
-            List<TaskAdviceDTO> adviceDTOs = advices.stream()
-                    .map(taskAdviceService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskAdviceDTO> adviceDTOs = taskAdviceService.convertToDTOs(advices);
 
             TaskAdviceListResponse response = TaskAdviceListResponse.builder()
                     .advices(adviceDTOs)
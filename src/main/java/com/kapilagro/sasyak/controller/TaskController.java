@@ -2,16 +2,23 @@ package com.kapilagro.sasyak.controller;
 
 import com.kapilagro.sasyak.model.*;
 import com.kapilagro.sasyak.services.TaskAdviceService;
+import com.kapilagro.sasyak.services.TaskExportService;
 import com.kapilagro.sasyak.services.TaskService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,37 +33,60 @@ public class TaskController {
     @Autowired
     private TaskAdviceService taskAdviceService;
 
+    @Autowired
+    private TaskExportService taskExportService;
+
+    // Query parameters with this prefix filter on details_json fields in /search
+    private static final String DETAILS_PARAM_PREFIX = "details.";
+
     // Helper method to get the current user from the authentication context
     private User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return (User) authentication.getPrincipal();
     }
 
+    // An empty cursor switches a list endpoint into cursor mode starting from the first page
+    private TaskCursor parseCursor(String cursor) {
+        return cursor.isBlank() ? null : TaskCursor.decode(cursor);
+    }
+
+    // A full page means there may be more rows after its last task
+    private String nextCursor(List<Task> tasks, int size) {
+        if (tasks.isEmpty() || tasks.size() < size) {
+            return null;
+        }
+        return TaskCursor.of(tasks.get(tasks.size() - 1)).encode();
+    }
+
     // Get tasks by type
     @GetMapping("/type/{taskType}")
     @PreAuthorize("hasAnyRole('MANAGER', 'SUPERVISOR', 'ADMIN')")
     public ResponseEntity<?> getTasksByType(
             @PathVariable String taskType,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
             int createdById = currentUser.getUserId();
 
-            List<Task> tasks = taskService.getTasksByType(tenantId, taskType, createdById, page, size);
+            List<Task> tasks = cursor != null
+                    ? taskService.getTasksByType(tenantId, taskType, createdById, parseCursor(cursor), size)
+                    : taskService.getTasksByType(tenantId, taskType, createdById, page, size);
             int total = tasks.size();
 
-            List<TaskDTO> taskDTOs = tasks.stream()
-                    .map(taskService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskDTO> taskDTOs = taskService.convertToDTOs(tasks);
 
             TaskListResponse response = TaskListResponse.builder()
                     .tasks(taskDTOs)
                     .totalCount(total)
+                    .nextCursor(nextCursor(tasks, size))
                     .build();
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving tasks: " + e.getMessage());
@@ -101,31 +131,25 @@ public class TaskController {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            // Check if user has access to the task
-            if (!taskService.userHasAccessToTask(currentUser.getUserId(), taskId, tenantId)) {
+            // Load the task only if the user has access to it
+            Optional<Task> taskOpt = taskService.getTaskForUser(taskId, currentUser.getUserId(), tenantId);
+            if (taskOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You don't have permission to access this task");
             }
 
-            Optional<Task> taskOpt = taskService.getTaskById(taskId);
+            Task task = taskOpt.get();
+            TaskDTO taskDTO = taskService.convertToDTO(task);
 
-            if (taskOpt.isPresent()) {
-                Task task = taskOpt.get();
-                TaskDTO taskDTO = taskService.convertToDTO(task);
+            // Get advice for this task
+            List<TaskAdviceDTO> advices = taskAdviceService.getAdviceForTaskAsDTO(taskId);
 
-                // Get advice for this task
-                List<TaskAdviceDTO> advices = taskAdviceService.getAdviceForTaskAsDTO(taskId);
-
-                TaskDetailResponse response = TaskDetailResponse.builder()
-                        .task(taskDTO)
-                        .advices(advices)
-                        .build();
+            TaskDetailResponse response = TaskDetailResponse.builder()
+                    .task(taskDTO)
+                    .advices(advices)
+                    .build();
 
-                return ResponseEntity.ok(response);
-            } else {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body("Task not found with ID: " + taskId);
-            }
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving task: " + e.getMessage());
@@ -137,26 +161,30 @@ public class TaskController {
     @PreAuthorize("hasAnyRole('MANAGER')")
     public ResponseEntity<?> getTasksByManager(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
             int managerId = currentUser.getUserId();
 
             // You may define this in your TaskService if not already present
-            List<Task> tasks = taskService.getTasksByManager(tenantId, managerId, page, size);
+            List<Task> tasks = cursor != null
+                    ? taskService.getTasksByManager(tenantId, managerId, parseCursor(cursor), size)
+                    : taskService.getTasksByManager(tenantId, managerId, page, size);
             int total = tasks.size();
 
-            List<TaskDTO> taskDTOs = tasks.stream()
-                    .map(taskService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskDTO> taskDTOs = taskService.convertToDTOs(tasks);
 
             TaskListResponse response = TaskListResponse.builder()
                     .tasks(taskDTOs)
                     .totalCount(total)
+                    .nextCursor(nextCursor(tasks, size))
                     .build();
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving manager tasks: " + e.getMessage());
@@ -169,24 +197,28 @@ public class TaskController {
     @PreAuthorize("hasAnyRole('MANAGER', 'SUPERVISOR', 'ADMIN')")
     public ResponseEntity<?> getTasksCreatedByMe(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            List<Task> tasks = taskService.getTasksCreatedByUser(tenantId, currentUser.getUserId(), page, size);
+            List<Task> tasks = cursor != null
+                    ? taskService.getTasksCreatedByUser(tenantId, currentUser.getUserId(), parseCursor(cursor), size)
+                    : taskService.getTasksCreatedByUser(tenantId, currentUser.getUserId(), page, size);
             int total = taskService.countByCreatedBy(tenantId, currentUser.getUserId());
 
-            List<TaskDTO> taskDTOs = tasks.stream()
-                    .map(taskService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskDTO> taskDTOs = taskService.convertToDTOs(tasks);
 
             TaskListResponse response = TaskListResponse.builder()
                     .tasks(taskDTOs)
                     .totalCount(total)
+                    .nextCursor(nextCursor(tasks, size))
                     .build();
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving tasks: " + e.getMessage());
@@ -198,24 +230,28 @@ public class TaskController {
     @PreAuthorize("hasAnyRole('MANAGER', 'SUPERVISOR', 'ADMIN', 'EMPLOYEE')")
     public ResponseEntity<?> getTasksAssignedToMe(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            List<Task> tasks = taskService.getTasksAssignedToUser(tenantId, currentUser.getUserId(), page, size);
+            List<Task> tasks = cursor != null
+                    ? taskService.getTasksAssignedToUser(tenantId, currentUser.getUserId(), parseCursor(cursor), size)
+                    : taskService.getTasksAssignedToUser(tenantId, currentUser.getUserId(), page, size);
             int total = taskService.countByAssignedTo(tenantId, currentUser.getUserId());
 
-            List<TaskDTO> taskDTOs = tasks.stream()
-                    .map(taskService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskDTO> taskDTOs = taskService.convertToDTOs(tasks);
 
             TaskListResponse response = TaskListResponse.builder()
                     .tasks(taskDTOs)
                     .totalCount(total)
+                    .nextCursor(nextCursor(tasks, size))
                     .build();
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving tasks: " + e.getMessage());
@@ -227,30 +263,101 @@ public class TaskController {
     @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
     public ResponseEntity<?> getAllTasks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            List<Task> tasks = taskService.getAllTasks(tenantId, page, size);
+            List<Task> tasks = cursor != null
+                    ? taskService.getAllTasks(tenantId, parseCursor(cursor), size)
+                    : taskService.getAllTasks(tenantId, page, size);
             int total = taskService.countTasksByTenant(tenantId);
 
-            List<TaskDTO> taskDTOs = tasks.stream()
-                    .map(taskService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskDTO> taskDTOs = taskService.convertToDTOs(tasks);
 
             TaskListResponse response = TaskListResponse.builder()
                     .tasks(taskDTOs)
                     .totalCount(total)
+                    .nextCursor(nextCursor(tasks, size))
                     .build();
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error retrieving tasks: " + e.getMessage());
         }
     }
 
+    // Search the tenant's tasks by detail fields, e.g. ?details.crop=paddy&details.field=F12,
+    // and/or by text with ?q=yellow leaf. Every details.* parameter must match. Text searches
+    // are ranked and paged with page/size; detail-only searches are cursor-paged newest first.
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ResponseEntity<?> searchTasks(
+            @RequestParam Map<String, String> params,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            UUID tenantId = getCurrentUser().getTenantId();
+
+            Map<String, String> details = new LinkedHashMap<>();
+            params.forEach((name, value) -> {
+                if (name.startsWith(DETAILS_PARAM_PREFIX) && name.length() > DETAILS_PARAM_PREFIX.length()) {
+                    details.put(name.substring(DETAILS_PARAM_PREFIX.length()), value);
+                }
+            });
+
+            boolean textSearch = q != null && !q.isBlank();
+            List<Task> tasks = textSearch
+                    ? taskService.searchTasksByText(tenantId, q, details, page, size)
+                    : taskService.searchTasksByDetails(tenantId, details, cursor != null ? parseCursor(cursor) : null, size);
+
+            TaskListResponse response = TaskListResponse.builder()
+                    .tasks(taskService.convertToDTOs(tasks))
+                    .totalCount(tasks.size())
+                    .nextCursor(textSearch ? null : nextCursor(tasks, size))
+                    .build();
+
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Exception occurred while searching tasks", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error searching tasks: " + e.getMessage());
+        }
+    }
+
+    // Export the tenant's tasks as CSV or NDJSON, streamed from a database cursor.
+    // from/to are inclusive creation dates (yyyy-MM-dd) and both optional.
+    @GetMapping("/export")
+    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN')")
+    public ResponseEntity<?> exportTasks(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!TaskExportService.isSupportedFormat(format)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported export format: " + format);
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("'from' must not be after 'to'");
+        }
+
+        UUID tenantId = getCurrentUser().getTenantId();
+        StreamingResponseBody body = out -> taskExportService.export(tenantId, from, to, format, out);
+
+        boolean csv = TaskExportService.CSV.equals(format);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks." + format + "\"")
+                .body(body);
+    }
+
     // Get tasks by status
 //    @GetMapping("/status/{status}")
 //    @PreAuthorize("hasAnyRole('MANAGER', 'ADMIN', 'SUPERVISOR')")
@@ -302,7 +409,8 @@ public class TaskController {
     public ResponseEntity<?> getTasksByStatus(
             @PathVariable String status,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor) {
         try {
             log.debug("Fetching tasks with status: {}, page: {}, size: {}", status, page, size);
 
@@ -322,19 +430,22 @@ public class TaskController {
                         .body("Tenant information is missing.");
             }
 
-            List<Task> tasks = taskService.getTasksByStatus(tenantId, status, currentUser.getUserId(), page, size);
+            List<Task> tasks = cursor != null
+                    ? taskService.getTasksByStatus(tenantId, status, currentUser.getUserId(), parseCursor(cursor), size)
+                    : taskService.getTasksByStatus(tenantId, status, currentUser.getUserId(), page, size);
             log.debug("Fetched {} tasks for tenant {}", tasks.size(), tenantId);
 
-            List<TaskDTO> taskDTOs = tasks.stream()
-                    .map(taskService::convertToDTO)
-                    .collect(Collectors.toList());
+            List<TaskDTO> taskDTOs = taskService.convertToDTOs(tasks);
 
             TaskListResponse response = TaskListResponse.builder()
                     .tasks(taskDTOs)
                     .totalCount(tasks.size())
+                    .nextCursor(nextCursor(tasks, size))
                     .build();
 
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             log.error("Exception occurred while retrieving tasks", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -352,17 +463,18 @@ public class TaskController {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            // Check if user has access to the task
-            if (!taskService.userHasAccessToTask(currentUser.getUserId(), taskId, tenantId)) {
+            // Load the task only if the user has access to it
+            Optional<Task> taskOpt = taskService.getTaskForUser(taskId, currentUser.getUserId(), tenantId);
+            if (taskOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You don't have permission to update this task");
             }
 
-            boolean updated = taskService.updateTaskStatus(taskId, request.getStatus(), currentUser.getUserId());
+            Task task = taskOpt.get();
+            boolean updated = taskService.updateTaskStatus(task, request.getStatus(), currentUser.getUserId());
 
             if (updated) {
-                Optional<Task> updatedTask = taskService.getTaskById(taskId);
-                return ResponseEntity.ok(taskService.convertToDTO(updatedTask.get()));
+                return ResponseEntity.ok(taskService.convertToDTO(task));
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Task not found with ID: " + taskId);
@@ -383,17 +495,18 @@ public class TaskController {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            // Check if user has access to the task
-            if (!taskService.userHasAccessToTask(currentUser.getUserId(), taskId, tenantId)) {
+            // Load the task only if the user has access to it
+            Optional<Task> taskOpt = taskService.getTaskForUser(taskId, currentUser.getUserId(), tenantId);
+            if (taskOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You don't have permission to update this task");
             }
 
-            boolean updated = taskService.updateTaskImplementation(taskId, request.getImplementationJson(), currentUser.getUserId());
+            Task task = taskOpt.get();
+            boolean updated = taskService.updateTaskImplementation(task, request.getImplementationJson(), currentUser.getUserId());
 
             if (updated) {
-                Optional<Task> updatedTask = taskService.getTaskById(taskId);
-                return ResponseEntity.ok(taskService.convertToDTO(updatedTask.get()));
+                return ResponseEntity.ok(taskService.convertToDTO(task));
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Task not found with ID: " + taskId);
@@ -414,17 +527,18 @@ public class TaskController {
             User currentUser = getCurrentUser();
             UUID tenantId = currentUser.getTenantId();
 
-            // Check if user has access to the task
-            if (!taskService.userHasAccessToTask(currentUser.getUserId(), taskId, tenantId)) {
+            // Load the task only if the user has access to it
+            Optional<Task> taskOpt = taskService.getTaskForUser(taskId, currentUser.getUserId(), tenantId);
+            if (taskOpt.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("You don't have permission to update this task");
             }
 
-            boolean updated = taskService.assignTask(taskId, assignedToId, currentUser.getUserId());
+            Task task = taskOpt.get();
+            boolean updated = taskService.assignTask(task, assignedToId, currentUser.getUserId());
 
             if (updated) {
-                Optional<Task> updatedTask = taskService.getTaskById(taskId);
-                return ResponseEntity.ok(taskService.convertToDTO(updatedTask.get()));
+                return ResponseEntity.ok(taskService.convertToDTO(task));
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Task not found with ID: " + taskId);
@@ -1,5 +1,6 @@
 package com.kapilagro.sasyak.controller;
 
+import com.kapilagro.sasyak.exceptions.PasswordHashingBusyException;
 import com.kapilagro.sasyak.model.*;
 import com.kapilagro.sasyak.services.AdminService;
 import com.kapilagro.sasyak.services.CatalogService;
@@ -340,6 +341,9 @@ public class UserAdminController {
         } catch (DataIntegrityViolationException ex) {
             log.error("Data integrity violation in createUser: email={}, message={}", request.getEmail(), ex.getMessage(), ex);
             return ResponseEntity.status(HttpStatus.CONFLICT).body("User already exists with this email.");
+        } catch (PasswordHashingBusyException ex) {
+            // Answered with 429 and Retry-After by GlobalExceptionHandler
+            throw ex;
         } catch (Exception e) {
             log.error("Unexpected error in createUser: email={}, message={}", request.getEmail(), e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error creating employee: " + e.getMessage());
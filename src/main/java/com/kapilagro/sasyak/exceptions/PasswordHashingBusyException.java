@@ -0,0 +1,16 @@
+package com.kapilagro.sasyak.exceptions;
+
+// Thrown when the password hashing pool and its queue are full; callers answer 429 with Retry-After
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
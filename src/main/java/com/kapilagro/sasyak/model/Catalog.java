@@ -22,6 +22,8 @@ public class Catalog {
     private String details;
     private UUID tenantId;
     private int createdBy;
+    // Tenant catalog version of the last change to this row
+    private long version;
 
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "Asia/Kolkata")
     private OffsetDateTime createdAt;
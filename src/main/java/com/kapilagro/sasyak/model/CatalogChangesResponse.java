@@ -0,0 +1,22 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Catalog rows created, updated or deleted after a client's version. The client applies
+ * them and keeps {@code version} for its next request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChangesResponse {
+    private long version;
+    private List<CatalogResponse> changed;
+    private List<Integer> deletedIds;
+}
@@ -0,0 +1,13 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportError {
+    private int line;
+    private String message;
+}
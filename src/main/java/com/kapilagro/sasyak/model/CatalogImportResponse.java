@@ -0,0 +1,28 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import. Rows matching an existing item (same category ignoring case,
+ * same value) update its details; repeated rows in one upload count once, the last one wins.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportResponse {
+    private int received;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int failed;
+    // Catalog version after the import; null when no row was valid
+    private Long version;
+    // The first failures, in upload order
+    private List<CatalogImportError> errors;
+}
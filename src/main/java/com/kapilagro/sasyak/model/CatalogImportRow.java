@@ -0,0 +1,16 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A validated catalog row from an import upload, with the line it started on.
+ */
+@Data
+@AllArgsConstructor
+public class CatalogImportRow {
+    private int line;
+    private String category;
+    private String value;
+    private String details;
+}
@@ -0,0 +1,73 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Immutable view of one tenant's catalog at a version. Items keep the database order
+ * (category, value); the category index is keyed by lower-cased category name.
+ */
+public class CatalogSnapshot {
+    @Getter
+    private final long version;
+    @Getter
+    private final List<CatalogResponse> items;
+    @Getter
+    private final List<String> categories;
+    private final Map<String, List<CatalogItem>> itemsByCategory;
+
+    private CatalogSnapshot(long version, List<CatalogResponse> items, List<String> categories,
+                            Map<String, List<CatalogItem>> itemsByCategory) {
+        this.version = version;
+        this.items = items;
+        this.categories = categories;
+        this.itemsByCategory = itemsByCategory;
+    }
+
+    // Rows as returned by CatalogRepo.findByTenantId
+    public static CatalogSnapshot of(long version, List<Catalog> rows) {
+        List<CatalogResponse> items = new ArrayList<>(rows.size());
+        Set<String> categories = new LinkedHashSet<>();
+        Map<String, List<CatalogItem>> byCategory = new HashMap<>();
+        Map<String, String> firstSpelling = new HashMap<>();
+        Set<String> mergedKeys = new HashSet<>();
+        for (Catalog row : rows) {
+            items.add(CatalogResponse.builder()
+                    .id(row.getId())
+                    .category(row.getCategory())
+                    .value(row.getValue())
+                    .details(row.getDetails())
+                    .build());
+            categories.add(row.getCategory());
+            String key = key(row.getCategory());
+            if (!firstSpelling.computeIfAbsent(key, k -> row.getCategory()).equals(row.getCategory())) {
+                mergedKeys.add(key);
+            }
+            byCategory.computeIfAbsent(key, k -> new ArrayList<>()).add(CatalogItem.builder()
+                    .id(row.getId())
+                    .category(row.getCategory())
+                    .value(row.getValue())
+                    .details(row.getDetails())
+                    .build());
+        }
+
+        Map<String, List<CatalogItem>> index = new HashMap<>();
+        byCategory.forEach((category, categoryItems) -> {
+            // Rows arrive in database order per spelling; only a merged key ("Crop", "crop") needs re-sorting
+            if (mergedKeys.contains(category)) {
+                categoryItems.sort(Comparator.comparing(CatalogItem::getValue));
+            }
+            index.put(category, List.copyOf(categoryItems));
+        });
+        return new CatalogSnapshot(version, List.copyOf(items), List.copyOf(categories), Map.copyOf(index));
+    }
+
+    public List<CatalogItem> getItemsByCategory(String category) {
+        return itemsByCategory.getOrDefault(key(category), List.of());
+    }
+
+    private static String key(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+}
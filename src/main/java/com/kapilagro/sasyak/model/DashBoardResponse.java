@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -20,4 +21,6 @@ public class DashBoardResponse {
     private int recentTasks;
     private int adviceCount;
     private String errorMessage;
+    // Stats that failed or timed out and were returned with a zero/empty default
+    private List<String> unavailableStats;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Notification {
+    private int notificationId;
+    private UUID tenantId;
+    private int userId;
+    private String title;
+    private String message;
+    private Integer taskId;
+    private boolean isRead;
+    // Task updates merged into this notification (see TaskEventDispatcher coalescing)
+    @Builder.Default
+    private int changeCount = 1;
+    private OffsetDateTime createdAt;
+}
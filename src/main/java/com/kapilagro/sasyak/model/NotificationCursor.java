@@ -0,0 +1,43 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's notification inbox ordered by (created_at, notification_id) descending.
+ * Clients only ever see the opaque encoded form.
+ */
+@Data
+@AllArgsConstructor
+public class NotificationCursor {
+    private OffsetDateTime createdAt;
+    private int notificationId;
+
+    public static NotificationCursor of(Notification notification) {
+        return new NotificationCursor(notification.getCreatedAt(), notification.getNotificationId());
+    }
+
+    public String encode() {
+        String raw = createdAt.toInstant().toString() + "|" + notificationId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NotificationCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            Instant createdAt = Instant.parse(raw.substring(0, separator));
+            int notificationId = Integer.parseInt(raw.substring(separator + 1));
+            return new NotificationCursor(createdAt.atOffset(ZoneOffset.UTC), notificationId);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kapilagro.sasyak.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Notification as sent to clients, in both the inbox list and the event stream
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDTO {
+    private int id;
+    private String title;
+    private String message;
+    private Integer taskId;
+    @JsonProperty("isRead")
+    private boolean isRead;
+    private int changeCount;
+    private LocalDateTime createdAt;
+
+    public static NotificationDTO of(Notification notification) {
+        return NotificationDTO.builder()
+                .id(notification.getNotificationId())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .taskId(notification.getTaskId())
+                .isRead(notification.isRead())
+                .changeCount(notification.getChangeCount())
+                .createdAt(notification.getCreatedAt() != null
+                        ? notification.getCreatedAt().atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime() : null)
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationListResponse {
+    private List<NotificationDTO> notifications;
+    private Integer totalCount; // null for cursor pages unless includeTotal=true
+    private int currentPage;
+    private Integer totalPages;
+    private String nextCursor; // Pass back as ?cursor= to fetch the next page; null on the last page
+}
@@ -0,0 +1,14 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+// One page of a user's notifications as read from the database
+@Data
+@AllArgsConstructor
+public class NotificationPage {
+    private List<Notification> notifications;
+    private Integer totalCount; // null when the total was not requested
+}
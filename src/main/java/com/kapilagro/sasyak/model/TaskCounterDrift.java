@@ -0,0 +1,20 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskCounterDrift {
+    private UUID tenantId;
+    private String status;
+    private String taskType;
+    private long counted;  // Value held in task_counters
+    private long actual;   // Value recomputed from tasks
+}
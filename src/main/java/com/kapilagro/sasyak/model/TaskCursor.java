@@ -0,0 +1,43 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a task list ordered by (created_at, task_id) descending.
+ * Clients only ever see the opaque encoded form.
+ */
+@Data
+@AllArgsConstructor
+public class TaskCursor {
+    private OffsetDateTime createdAt;
+    private int taskId;
+
+    public static TaskCursor of(Task task) {
+        return new TaskCursor(task.getCreatedAt(), task.getTaskId());
+    }
+
+    public String encode() {
+        String raw = createdAt.toInstant().toString() + "|" + taskId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            Instant createdAt = Instant.parse(raw.substring(0, separator));
+            int taskId = Integer.parseInt(raw.substring(separator + 1));
+            return new TaskCursor(createdAt.atOffset(ZoneOffset.UTC), taskId);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
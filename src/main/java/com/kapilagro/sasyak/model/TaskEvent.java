@@ -0,0 +1,49 @@
+package com.kapilagro.sasyak.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox row describing a task change that needs notifications.
+ * Carries a snapshot of the task fields the recipient rules depend on.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskEvent {
+    public static final String TASK_CREATED = "TASK_CREATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String IMPLEMENTED = "IMPLEMENTED";
+    public static final String ASSIGNED = "ASSIGNED";
+    public static final String ADVICE_ADDED = "ADVICE_ADDED";
+
+    private long eventId;
+    private UUID tenantId;
+    private int taskId;
+    private String eventType;
+    private int actorId; // User who made the change
+    private int createdById;
+    private Integer assignedToId;
+    private String taskType;
+    private String status;
+    private OffsetDateTime createdAt;
+
+    public static TaskEvent of(String eventType, Task task, int actorId) {
+        return TaskEvent.builder()
+                .tenantId(task.getTenantId())
+                .taskId(task.getTaskId())
+                .eventType(eventType)
+                .actorId(actorId)
+                .createdById(task.getCreatedById())
+                .assignedToId(task.getAssignedToId())
+                .taskType(task.getTaskType())
+                .status(task.getStatus())
+                .build();
+    }
+}
@@ -14,4 +14,5 @@ import java.util.List;
 public class TaskListResponse {
     private List<TaskDTO> tasks;
     private int totalCount;
+    private String nextCursor; // Pass back as ?cursor= to fetch the next page; null on the last page
 }
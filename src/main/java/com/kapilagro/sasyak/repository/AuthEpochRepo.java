@@ -0,0 +1,67 @@
+package com.kapilagro.sasyak.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-user auth epochs. Claims-carrying access tokens record the epoch they were issued
+ * under; bumping it makes those tokens stale so the client has to refresh.
+ */
+@Repository
+public class AuthEpochRepo {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AuthEpochRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long getEpoch(int userId) {
+        List<Long> epochs = jdbcTemplate.queryForList("SELECT epoch FROM auth_epochs WHERE user_id = ?", Long.class, userId);
+        return epochs.isEmpty() ? 0 : epochs.get(0);
+    }
+
+    // Returns the new epoch
+    public long bumpUser(int userId) {
+        String sql = "INSERT INTO auth_epochs (user_id, epoch) VALUES (?, 1) " +
+                "ON CONFLICT (user_id) DO UPDATE SET epoch = auth_epochs.epoch + 1, updated_at = now() " +
+                "RETURNING epoch";
+        return jdbcTemplate.queryForObject(sql, Long.class, userId);
+    }
+
+    // Bump every user of a tenant; returns userId -> new epoch
+    public Map<Integer, Long> bumpTenantUsers(int tenantId) {
+        String sql = "INSERT INTO auth_epochs (user_id, epoch) SELECT user_id, 1 FROM users WHERE tenant_id = ? " +
+                "ON CONFLICT (user_id) DO UPDATE SET epoch = auth_epochs.epoch + 1, updated_at = now() " +
+                "RETURNING user_id, epoch";
+        Map<Integer, Long> epochs = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            epochs.put(rs.getInt("user_id"), rs.getLong("epoch"));
+        }, tenantId);
+        return epochs;
+    }
+
+    // Epochs changed after the given time (all of them when null), plus the latest change time seen
+    public OffsetDateTime loadChangedSince(OffsetDateTime since, Map<Integer, Long> into) {
+        String sql = since == null
+                ? "SELECT user_id, epoch, updated_at FROM auth_epochs"
+                : "SELECT user_id, epoch, updated_at FROM auth_epochs WHERE updated_at > ?";
+        Object[] params = since == null ? new Object[0] : new Object[]{since};
+        OffsetDateTime[] latest = {since};
+        jdbcTemplate.query(sql, rs -> {
+            into.merge(rs.getInt("user_id"), rs.getLong("epoch"), Math::max);
+            OffsetDateTime updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+            if (latest[0] == null || updatedAt.isAfter(latest[0])) {
+                latest[0] = updatedAt;
+            }
+        }, params);
+        return latest[0];
+    }
+}
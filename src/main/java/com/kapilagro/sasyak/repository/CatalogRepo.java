@@ -1,9 +1,14 @@
 package com.kapilagro.sasyak.repository;
 
 import com.kapilagro.sasyak.model.Catalog;
+import com.kapilagro.sasyak.model.CatalogImportResponse;
+import com.kapilagro.sasyak.model.CatalogImportRow;
 import com.kapilagro.sasyak.model.CatalogItem;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
@@ -14,8 +19,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,6 +44,7 @@ public class CatalogRepo {
                     .details(rs.getString("details"))
                     .tenantId((UUID) rs.getObject("tenant_id"))
                     .createdBy(rs.getInt("created_by"))
+                    .version(rs.getLong("version"))
                     .createdAt(rs.getObject("created_at", OffsetDateTime.class))
                     .updatedAt(rs.getObject("updated_at", OffsetDateTime.class))  // ✅ Updated here
                     .build();
@@ -60,8 +68,8 @@ public class CatalogRepo {
      * Create a new catalog item
      */
     public int save(Catalog catalog) {
-        String sql = "INSERT INTO catalog (category, value, details, tenant_id, created_by, created_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO catalog (category, value, details, tenant_id, created_by, created_at, version) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
@@ -73,12 +81,90 @@ public class CatalogRepo {
             ps.setObject(4, catalog.getTenantId());
             ps.setInt(5, catalog.getCreatedBy());
             ps.setObject(6, LocalDateTime.now());
+            ps.setLong(7, catalog.getVersion());
             return ps;
         }, keyHolder);
 
         return keyHolder.getKey().intValue();  // Now this will work since only 'id' is returned
     }
 
+    /**
+     * Create the import staging table; it lives until the current transaction ends
+     */
+    public void createImportStaging() {
+        jdbcTemplate.execute("CREATE TEMP TABLE catalog_import_staging " +
+                "(line_no INTEGER NOT NULL, category TEXT NOT NULL, value TEXT NOT NULL, details TEXT) ON COMMIT DROP");
+    }
+
+    /**
+     * Stream rows into the staging table with COPY as they are read; returns the number copied.
+     * Must run in the transaction that created the staging table.
+     */
+    public int copyIntoStaging(Iterator<CatalogImportRow> rows) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY catalog_import_staging (line_no, category, value, details) FROM STDIN WITH (FORMAT csv)");
+            int copied = 0;
+            try {
+                while (rows.hasNext()) {
+                    byte[] line = copyLine(rows.next());
+                    copyIn.writeToCopy(line, 0, line.length);
+                    copied++;
+                }
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+            return copied;
+        });
+    }
+
+    // COPY csv: text is always quoted so an empty string stays distinct from an unquoted NULL
+    private static byte[] copyLine(CatalogImportRow row) {
+        return (row.getLine() + "," + quote(row.getCategory()) + "," + quote(row.getValue()) + ","
+                + (row.getDetails() != null ? quote(row.getDetails()) : "") + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String quote(String text) {
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Upsert the staged rows into the tenant's catalog. Items are matched on category ignoring
+     * case and value; a match only changes when its details differ. Within the staging table the
+     * last line for an item wins. Returns the inserted, updated and unchanged counts.
+     */
+    public CatalogImportResponse mergeImportStaging(UUID tenantId, int createdBy, long version) {
+        String sql = "WITH latest AS (" +
+                "  SELECT DISTINCT ON (lower(category), value) category, value, details " +
+                "  FROM catalog_import_staging ORDER BY lower(category), value, line_no DESC" +
+                "), updated AS (" +
+                "  UPDATE catalog c SET details = l.details, updated_at = now(), version = ? " +
+                "  FROM latest l " +
+                "  WHERE c.tenant_id = ? AND lower(c.category) = lower(l.category) AND c.value = l.value " +
+                "  AND c.details IS DISTINCT FROM l.details " +
+                "  RETURNING c.id" +
+                "), inserted AS (" +
+                "  INSERT INTO catalog (category, value, details, tenant_id, created_by, created_at, version) " +
+                "  SELECT l.category, l.value, l.details, ?, ?, now(), ? FROM latest l " +
+                "  WHERE NOT EXISTS (SELECT 1 FROM catalog c " +
+                "    WHERE c.tenant_id = ? AND lower(c.category) = lower(l.category) AND c.value = l.value) " +
+                "  RETURNING id" +
+                "), counts AS (" +
+                "  SELECT (SELECT COUNT(*) FROM latest) AS distinct_rows, (SELECT COUNT(*) FROM inserted) AS inserted, " +
+                "  (SELECT COUNT(*) FROM updated) AS updated" +
+                ") " +
+                "SELECT inserted, updated, distinct_rows - inserted - updated AS unchanged FROM counts";
+        return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> CatalogImportResponse.builder()
+                        .inserted(rs.getInt("inserted"))
+                        .updated(rs.getInt("updated"))
+                        .unchanged(rs.getInt("unchanged"))
+                        .build(),
+                version, tenantId, tenantId, createdBy, version, tenantId);
+    }
+
     /**
      * Get all catalog items for a tenant
      */
@@ -118,17 +204,43 @@ public class CatalogRepo {
         return rowsAffected > 0;
     }
 
+    /**
+     * Record a deleted catalog item so clients syncing by version drop it
+     */
+    public void saveTombstone(int id, UUID tenantId, long version) {
+        String sql = "INSERT INTO catalog_tombstones (tenant_id, catalog_id, version) VALUES (?, ?, ?) " +
+                "ON CONFLICT (tenant_id, catalog_id) DO UPDATE SET version = EXCLUDED.version, deleted_at = now()";
+        jdbcTemplate.update(sql, tenantId, id, version);
+    }
+
+    /**
+     * Get catalog items changed after a version
+     */
+    public List<Catalog> findByTenantIdChangedSince(UUID tenantId, long version) {
+        String sql = "SELECT * FROM catalog WHERE tenant_id = ? AND version > ? ORDER BY category, value";
+        return jdbcTemplate.query(sql, catalogRowMapper, tenantId, version);
+    }
+
+    /**
+     * Get ids of catalog items deleted after a version
+     */
+    public List<Integer> findDeletedIdsSince(UUID tenantId, long version) {
+        String sql = "SELECT catalog_id FROM catalog_tombstones WHERE tenant_id = ? AND version > ? ORDER BY catalog_id";
+        return jdbcTemplate.queryForList(sql, Integer.class, tenantId, version);
+    }
+
     /**
      * Update catalog item
      */
     public boolean update(Catalog catalog) {
-        String sql = "UPDATE catalog SET category = ?, value = ?, details = ?, updated_at = ? " +
+        String sql = "UPDATE catalog SET category = ?, value = ?, details = ?, updated_at = ?, version = ? " +
                 "WHERE id = ? AND tenant_id = ?";
         int rowsAffected = jdbcTemplate.update(sql,
                 catalog.getCategory(),
                 catalog.getValue(),
                 catalog.getDetails(),
                 LocalDateTime.now(),
+                catalog.getVersion(),
                 catalog.getId(),
                 catalog.getTenantId());  // Fixed: Pass UUID directly
         return rowsAffected > 0;
@@ -0,0 +1,55 @@
+package com.kapilagro.sasyak.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-tenant catalog versions. Every catalog write bumps its tenant's version in the same
+ * transaction, so the row lock also orders concurrent writes to one tenant's catalog.
+ */
+@Repository
+public class CatalogVersionRepo {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public CatalogVersionRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long getVersion(UUID tenantId) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM catalog_versions WHERE tenant_id = ?", Long.class, tenantId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    // Returns the new version
+    public long bump(UUID tenantId) {
+        String sql = "INSERT INTO catalog_versions (tenant_id, version) VALUES (?, 1) " +
+                "ON CONFLICT (tenant_id) DO UPDATE SET version = catalog_versions.version + 1, updated_at = now() " +
+                "RETURNING version";
+        return jdbcTemplate.queryForObject(sql, Long.class, tenantId);
+    }
+
+    // Versions changed after the given time (all of them when null), plus the latest change time seen
+    public OffsetDateTime loadChangedSince(OffsetDateTime since, Map<UUID, Long> into) {
+        String sql = since == null
+                ? "SELECT tenant_id, version, updated_at FROM catalog_versions"
+                : "SELECT tenant_id, version, updated_at FROM catalog_versions WHERE updated_at > ?";
+        Object[] params = since == null ? new Object[0] : new Object[]{since};
+        OffsetDateTime[] latest = {since};
+        jdbcTemplate.query(sql, rs -> {
+            into.merge((UUID) rs.getObject("tenant_id"), rs.getLong("version"), Math::max);
+            OffsetDateTime updatedAt = rs.getObject("updated_at", OffsetDateTime.class);
+            if (latest[0] == null || updatedAt.isAfter(latest[0])) {
+                latest[0] = updatedAt;
+            }
+        }, params);
+        return latest[0];
+    }
+}
@@ -0,0 +1,83 @@
+package com.kapilagro.sasyak.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Monthly partitions of the notifications table (see db/notifications-partitioning.sql)
+ * and retention of read notifications. Everything here also works on an unpartitioned table,
+ * where the partition methods are simply not called.
+ */
+@Repository
+public class NotificationPartitionRepo {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String PARTITION_PREFIX = "notifications_";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NotificationPartitionRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isPartitioned() {
+        String sql = "SELECT EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass('notifications') AND relkind = 'p')";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class));
+    }
+
+    public static String partitionName(LocalDate monthStart) {
+        return PARTITION_PREFIX + monthStart.format(PARTITION_SUFFIX);
+    }
+
+    // Names are generated from dates, never from input, so formatting them into DDL is safe
+    public void createMonthPartition(LocalDate monthStart) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(monthStart) +
+                " PARTITION OF notifications FOR VALUES FROM ('" + monthStart + "') TO ('" + monthStart.plusMonths(1) + "')");
+    }
+
+    // Monthly partitions currently attached, oldest first
+    public List<String> monthPartitions() {
+        String sql = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE i.inhparent = 'notifications'::regclass AND c.relname ~ '^notifications_[0-9]{4}_[0-9]{2}$' " +
+                "ORDER BY c.relname";
+        return jdbcTemplate.queryForList(sql, String.class);
+    }
+
+    public boolean isEmpty(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class));
+    }
+
+    public void dropPartition(String partition) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+    }
+
+    // Shortest retention in effect; bounds the delete's created_at so old partitions are pruned
+    public int minRetentionDays(int defaultDays) {
+        String sql = "SELECT LEAST(?, COALESCE(MIN(read_retention_days), ?)) FROM notification_retention_policies";
+        return jdbcTemplate.queryForObject(sql, Integer.class, defaultDays, defaultDays);
+    }
+
+    /**
+     * Delete up to batchSize read notifications older than their tenant's retention.
+     * Returns the number deleted; callers repeat until it drops below batchSize.
+     */
+    public int deleteExpiredRead(int defaultDays, int minDays, int batchSize) {
+        String sql = "WITH doomed AS (" +
+                "SELECT n.notification_id, n.created_at FROM notifications n " +
+                "LEFT JOIN notification_retention_policies p ON p.tenant_id = n.tenant_id " +
+                "WHERE n.is_read = true " +
+                "AND n.created_at < now() - make_interval(days => ?) " +
+                "AND n.created_at < now() - make_interval(days => COALESCE(p.read_retention_days, ?)) " +
+                "LIMIT ?) " +
+                "DELETE FROM notifications n USING doomed d " +
+                "WHERE n.notification_id = d.notification_id AND n.created_at = d.created_at";
+        return jdbcTemplate.update(sql, minDays, defaultDays, batchSize);
+    }
+}
@@ -0,0 +1,199 @@
+package com.kapilagro.sasyak.repository;
+
+import com.kapilagro.sasyak.model.Notification;
+import com.kapilagro.sasyak.model.NotificationCursor;
+import com.kapilagro.sasyak.model.NotificationPage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Repository
+public class NotificationRepo {
+
+    // Rows per INSERT statement; keeps the bind parameter count well under the driver limit
+    private static final int INSERT_CHUNK_SIZE = 500;
+
+    private static final RowMapper<Notification> NOTIFICATION_ROW_MAPPER = (rs, rowNum) -> Notification.builder()
+            .notificationId(rs.getInt("notification_id"))
+            .tenantId(rs.getObject("tenant_id", UUID.class))
+            .userId(rs.getInt("user_id"))
+            .title(rs.getString("title"))
+            .message(rs.getString("message"))
+            .taskId(rs.getObject("task_id", Integer.class))
+            .isRead(rs.getBoolean("is_read"))
+            .changeCount(rs.getInt("change_count"))
+            .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public NotificationRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Insert notifications with one multi-row INSERT per chunk; returns the stored rows
+    public List<Notification> saveAll(List<Notification> notifications) {
+        List<Notification> saved = new ArrayList<>(notifications.size());
+        for (int from = 0; from < notifications.size(); from += INSERT_CHUNK_SIZE) {
+            List<Notification> chunk = notifications.subList(from, Math.min(from + INSERT_CHUNK_SIZE, notifications.size()));
+
+            StringBuilder sql = new StringBuilder("INSERT INTO notifications (tenant_id, user_id, title, message, task_id, change_count) VALUES ");
+            List<Object> params = new ArrayList<>(chunk.size() * 6);
+            for (int i = 0; i < chunk.size(); i++) {
+                Notification n = chunk.get(i);
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+                params.add(n.getTenantId());
+                params.add(n.getUserId());
+                params.add(n.getTitle());
+                params.add(n.getMessage());
+                params.add(n.getTaskId());
+                params.add(Math.max(1, n.getChangeCount()));
+            }
+            sql.append(" RETURNING *");
+            saved.addAll(jdbcTemplate.query(sql.toString(), NOTIFICATION_ROW_MAPPER, params.toArray()));
+        }
+        return saved;
+    }
+
+    /**
+     * One page of a user's inbox, newest first. With a cursor the page starts after it (keyset);
+     * otherwise it starts at offset. With withTotal, offset pages read the total from count(*) over()
+     * in the same query; cursor pages (where the window would only see rows past the cursor) and
+     * pages past the end fall back to a count.
+     */
+    public NotificationPage findForUser(int userId, boolean onlyUnread, NotificationCursor after, int offset,
+                                        int size, boolean withTotal) {
+        boolean windowTotal = withTotal && after == null;
+        StringBuilder sql = new StringBuilder("SELECT n.*")
+                .append(windowTotal ? ", count(*) OVER () AS total_count" : "")
+                .append(" FROM notifications n WHERE n.user_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(userId);
+        if (onlyUnread) {
+            sql.append(" AND n.is_read = false");
+        }
+        if (after != null) {
+            // The plain created_at bound lets the planner prune newer monthly partitions
+            sql.append(" AND n.created_at <= ? AND (n.created_at, n.notification_id) < (?, ?)");
+            params.add(after.getCreatedAt());
+            params.add(after.getCreatedAt());
+            params.add(after.getNotificationId());
+        }
+        sql.append(" ORDER BY n.created_at DESC, n.notification_id DESC LIMIT ?");
+        params.add(size);
+        if (after == null && offset > 0) {
+            sql.append(" OFFSET ?");
+            params.add(offset);
+        }
+
+        Integer[] total = {null};
+        List<Notification> notifications = jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            if (windowTotal && rowNum == 0) {
+                total[0] = rs.getInt("total_count");
+            }
+            return NOTIFICATION_ROW_MAPPER.mapRow(rs, rowNum);
+        }, params.toArray());
+
+        if (withTotal && total[0] == null) {
+            total[0] = after == null && offset == 0 ? 0 : countForUser(userId, onlyUnread);
+        }
+        return new NotificationPage(notifications, total[0]);
+    }
+
+    /**
+     * Fold task update notifications into the recipient's unread update notification for the same
+     * task when that one was created within the window; creation and assignment notices are left alone. Returns the updated rows; notifications without
+     * a match are left for the caller to insert.
+     */
+    public List<Notification> mergeIntoRecent(List<Notification> notifications, int windowSeconds) {
+        List<Notification> merged = new ArrayList<>();
+        List<Notification> taskNotifications = notifications.stream().filter(n -> n.getTaskId() != null).toList();
+        for (int from = 0; from < taskNotifications.size(); from += INSERT_CHUNK_SIZE) {
+            List<Notification> chunk = taskNotifications.subList(from, Math.min(from + INSERT_CHUNK_SIZE, taskNotifications.size()));
+
+            StringBuilder values = new StringBuilder();
+            List<Object> params = new ArrayList<>(chunk.size() * 4 + 1);
+            for (int i = 0; i < chunk.size(); i++) {
+                Notification n = chunk.get(i);
+                values.append(i == 0 ? "(?::int, ?::int, ?, ?::int)" : ", (?::int, ?::int, ?, ?::int)");
+                params.add(n.getUserId());
+                params.add(n.getTaskId());
+                params.add(n.getMessage());
+                params.add(Math.max(1, n.getChangeCount()));
+            }
+            params.add(windowSeconds);
+
+            String sql = "UPDATE notifications n SET " +
+                    "change_count = n.change_count + v.changes, " +
+                    "title = 'Task updated (' || (n.change_count + v.changes) || ' changes)', " +
+                    "message = v.message " +
+                    "FROM (VALUES " + values + ") AS v (user_id, task_id, message, changes) " +
+                    "WHERE n.user_id = v.user_id AND n.task_id = v.task_id AND n.is_read = false " +
+                    "AND (n.title IN ('Task Status Updated', 'Task Implemented', 'New Advice Received') " +
+                    "OR n.title LIKE 'Task updated (%') " +
+                    "AND n.created_at > now() - make_interval(secs => ?) " +
+                    "RETURNING n.*";
+            merged.addAll(jdbcTemplate.query(sql, NOTIFICATION_ROW_MAPPER, params.toArray()));
+        }
+        return merged;
+    }
+
+    public int countForUser(int userId, boolean onlyUnread) {
+        String sql = "SELECT COUNT(*) FROM notifications WHERE user_id = ?" + (onlyUnread ? " AND is_read = false" : "");
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, userId);
+        return count != null ? count : 0;
+    }
+
+    public boolean isOwnedBy(int notificationId, int userId) {
+        String sql = "SELECT EXISTS (SELECT 1 FROM notifications WHERE notification_id = ? AND user_id = ?)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class, notificationId, userId));
+    }
+
+    public int countUnread(int userId) {
+        String sql = "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = false";
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, userId);
+        return count != null ? count : 0;
+    }
+
+    // Unread counts of every user that has any; users missing from the map have none
+    public Map<Integer, Integer> countUnreadByUser() {
+        String sql = "SELECT user_id, COUNT(*) AS unread FROM notifications WHERE is_read = false GROUP BY user_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getInt("user_id"), rs.getInt("unread"));
+        });
+        return counts;
+    }
+
+    // Same notification for many users, sent as multi-row INSERTs
+    public List<Notification> saveForUsers(UUID tenantId, Collection<Integer> userIds, String title, String message, Integer taskId) {
+        List<Notification> notifications = new ArrayList<>(userIds.size());
+        for (Integer userId : userIds) {
+            notifications.add(Notification.builder()
+                    .tenantId(tenantId)
+                    .userId(userId)
+                    .title(title)
+                    .message(message)
+                    .taskId(taskId)
+                    .build());
+        }
+        return saveAll(notifications);
+    }
+
+    // Same notification for every user of a tenant with the given role, in one INSERT ... SELECT
+    public List<Notification> saveForRole(UUID tenantId, String role, String title, String message, Integer taskId) {
+        String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) " +
+                "SELECT tenant_id, user_id, ?, ?, ? FROM users WHERE tenant_id = ? AND role = ? RETURNING *";
+        return jdbcTemplate.query(sql, NOTIFICATION_ROW_MAPPER, title, message, taskId, tenantId, role);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kapilagro.sasyak.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Refresh token ids that were used (rotated) or revoked. Rows are kept until the token
+ * itself would have expired; after that the signature check rejects it anyway.
+ */
+@Repository
+public class RefreshTokenRepo {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public RefreshTokenRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns false when the id was already revoked, i.e. the token is being replayed
+    public boolean revoke(UUID tokenId, OffsetDateTime expiresAt) {
+        String sql = "INSERT INTO refresh_token_revocations (token_id, expires_at) VALUES (?, ?) " +
+                "ON CONFLICT (token_id) DO NOTHING";
+        return jdbcTemplate.update(sql, tokenId, expiresAt) > 0;
+    }
+
+    // Revoked ids whose tokens have not expired yet, with their expiry in epoch millis
+    public void loadActive(Map<UUID, Long> into) {
+        String sql = "SELECT token_id, expires_at FROM refresh_token_revocations WHERE expires_at > now()";
+        jdbcTemplate.query(sql, rs -> {
+            into.put(rs.getObject("token_id", UUID.class),
+                    rs.getObject("expires_at", OffsetDateTime.class).toInstant().toEpochMilli());
+        });
+    }
+
+    public int deleteExpired() {
+        return jdbcTemplate.update("DELETE FROM refresh_token_revocations WHERE expires_at <= now()");
+    }
+}
@@ -0,0 +1,120 @@
+package com.kapilagro.sasyak.repository;
+
+import com.kapilagro.sasyak.model.Task;
+import com.kapilagro.sasyak.model.TaskCounterDrift;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Summary of task counts per tenant, status and type. Writers call {@link #apply}
+ * inside the transaction that changes the task, so readers never need to scan tasks.
+ */
+@Repository
+public class TaskCounterRepo {
+
+    // Counter key columns as stored; missing values are kept under an empty label
+    private static final String KEY_COLUMNS =
+            "COALESCE(status::text, '') AS status, COALESCE(task_type::text, '') AS task_type";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TaskCounterRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Move a task's contribution from its old (status, type) to its new one.
+    // Either side may be null for inserts and deletes.
+    public void apply(Task before, Task after) {
+        if (before != null && after != null
+                && Objects.equals(before.getStatus(), after.getStatus())
+                && Objects.equals(before.getTaskType(), after.getTaskType())) {
+            return;
+        }
+        if (before != null) {
+            adjust(before.getTenantId(), before.getStatus(), before.getTaskType(), -1);
+        }
+        if (after != null) {
+            adjust(after.getTenantId(), after.getStatus(), after.getTaskType(), 1);
+        }
+    }
+
+    public void adjust(UUID tenantId, String status, String taskType, int delta) {
+        String sql = "INSERT INTO task_counters (tenant_id, status, task_type, task_count) VALUES (?, ?, ?, ?) " +
+                "ON CONFLICT (tenant_id, status, task_type) " +
+                "DO UPDATE SET task_count = task_counters.task_count + EXCLUDED.task_count";
+        jdbcTemplate.update(sql, tenantId, Objects.toString(status, ""), Objects.toString(taskType, ""), delta);
+    }
+
+    public int countByTenantId(UUID tenantId) {
+        String sql = "SELECT COALESCE(SUM(task_count), 0) FROM task_counters WHERE tenant_id = ?";
+        return jdbcTemplate.queryForObject(sql, Integer.class, tenantId);
+    }
+
+    public Map<String, Integer> getStatusBreakdown(UUID tenantId) {
+        return breakdown("status", tenantId);
+    }
+
+    public Map<String, Integer> getTypeBreakdown(UUID tenantId) {
+        return breakdown("task_type", tenantId);
+    }
+
+    private Map<String, Integer> breakdown(String column, UUID tenantId) {
+        String sql = "SELECT " + column + " AS label, SUM(task_count) AS count FROM task_counters " +
+                "WHERE tenant_id = ? GROUP BY " + column + " HAVING SUM(task_count) > 0";
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getString("label"), rs.getInt("count"));
+        }, tenantId);
+        return counts;
+    }
+
+    public boolean isEmpty() {
+        String sql = "SELECT NOT EXISTS (SELECT 1 FROM task_counters)";
+        return jdbcTemplate.queryForObject(sql, Boolean.class);
+    }
+
+    /**
+     * Rebuild every counter from the tasks table and return the rows that had drifted.
+     * The table lock waits for in-flight task writes and holds new ones back until the
+     * rebuild commits, so the recount and the counters describe the same set of tasks.
+     */
+    @Transactional
+    public List<TaskCounterDrift> rebuild() {
+        jdbcTemplate.execute("LOCK TABLE task_counters IN EXCLUSIVE MODE");
+
+        Map<List<Object>, long[]> rows = new HashMap<>();
+        jdbcTemplate.query("SELECT tenant_id, status, task_type, task_count FROM task_counters", rs -> {
+            List<Object> key = List.of(rs.getObject("tenant_id"), rs.getString("status"), rs.getString("task_type"));
+            rows.computeIfAbsent(key, k -> new long[2])[0] = rs.getLong("task_count");
+        });
+        jdbcTemplate.query("SELECT tenant_id, " + KEY_COLUMNS + ", COUNT(*) AS task_count " +
+                "FROM tasks GROUP BY 1, 2, 3", rs -> {
+            List<Object> key = List.of(rs.getObject("tenant_id"), rs.getString("status"), rs.getString("task_type"));
+            rows.computeIfAbsent(key, k -> new long[2])[1] = rs.getLong("task_count");
+        });
+
+        List<TaskCounterDrift> drift = new ArrayList<>();
+        rows.forEach((key, counts) -> {
+            if (counts[0] != counts[1]) {
+                drift.add(TaskCounterDrift.builder()
+                        .tenantId((UUID) key.get(0))
+                        .status((String) key.get(1))
+                        .taskType((String) key.get(2))
+                        .counted(counts[0])
+                        .actual(counts[1])
+                        .build());
+            }
+        });
+
+        jdbcTemplate.update("DELETE FROM task_counters");
+        jdbcTemplate.update("INSERT INTO task_counters (tenant_id, status, task_type, task_count) " +
+                "SELECT tenant_id, " + KEY_COLUMNS + ", COUNT(*) FROM tasks GROUP BY 1, 2, 3");
+
+        return drift;
+    }
+}
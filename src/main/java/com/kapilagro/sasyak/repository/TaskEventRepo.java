@@ -0,0 +1,85 @@
+package com.kapilagro.sasyak.repository;
+
+import com.kapilagro.sasyak.model.TaskEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public class TaskEventRepo {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TaskEventRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    private final RowMapper<TaskEvent> eventRowMapper = (rs, rowNum) -> TaskEvent.builder()
+            .eventId(rs.getLong("event_id"))
+            .tenantId(rs.getObject("tenant_id", UUID.class))
+            .taskId(rs.getInt("task_id"))
+            .eventType(rs.getString("event_type"))
+            .actorId(rs.getInt("actor_id"))
+            .createdById(rs.getInt("created_by_id"))
+            .assignedToId(rs.getObject("assigned_to_id", Integer.class))
+            .taskType(rs.getString("task_type"))
+            .status(rs.getString("status"))
+            .createdAt(rs.getObject("created_at", OffsetDateTime.class))
+            .build();
+
+    // Append an event; call inside the transaction that made the change
+    public void append(TaskEvent event) {
+        String sql = "INSERT INTO task_events " +
+                "(tenant_id, task_id, event_type, actor_id, created_by_id, assigned_to_id, task_type, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, event.getTenantId(), event.getTaskId(), event.getEventType(), event.getActorId(),
+                event.getCreatedById(), event.getAssignedToId(), event.getTaskType(), event.getStatus());
+    }
+
+    // Lock the oldest pending events; rows locked by another dispatcher are skipped
+    public List<TaskEvent> claimBatch(int limit) {
+        String sql = "SELECT * FROM task_events WHERE next_attempt_at <= now() " +
+                "ORDER BY event_id LIMIT ? FOR UPDATE SKIP LOCKED";
+        return jdbcTemplate.query(sql, eventRowMapper, limit);
+    }
+
+    // Lock one pending event; empty when it is gone or another dispatcher holds it
+    public Optional<TaskEvent> claimById(long eventId) {
+        String sql = "SELECT * FROM task_events WHERE event_id = ? FOR UPDATE SKIP LOCKED";
+        return jdbcTemplate.query(sql, eventRowMapper, eventId).stream().findFirst();
+    }
+
+    // Count a failed delivery and hold the event back for backoffMs, doubled per earlier attempt;
+    // at maxAttempts the event moves to task_events_dead. Returns true when it was moved.
+    public boolean recordFailure(long eventId, int maxAttempts, long backoffMs, String error) {
+        List<Integer> attempts = jdbcTemplate.queryForList(
+                "UPDATE task_events SET attempts = attempts + 1, " +
+                        "next_attempt_at = now() + ? * power(2, attempts) * interval '1 millisecond' " +
+                        "WHERE event_id = ? RETURNING attempts", Integer.class, backoffMs, eventId);
+        if (attempts.isEmpty() || attempts.get(0) < maxAttempts) {
+            return false;
+        }
+        String sql = "WITH moved AS (DELETE FROM task_events WHERE event_id = ? RETURNING *) " +
+                "INSERT INTO task_events_dead (event_id, tenant_id, task_id, event_type, actor_id, created_by_id, " +
+                "assigned_to_id, task_type, status, created_at, attempts, last_error) " +
+                "SELECT event_id, tenant_id, task_id, event_type, actor_id, created_by_id, " +
+                "assigned_to_id, task_type, status, created_at, attempts, ? FROM moved";
+        return jdbcTemplate.update(sql, eventId, error) > 0;
+    }
+
+    public void deleteByIds(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        String sql = "DELETE FROM task_events WHERE event_id = ANY(?)";
+        jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", eventIds.toArray())));
+    }
+}
@@ -1,30 +1,44 @@
 package com.kapilagro.sasyak.repository;
 
 import com.kapilagro.sasyak.model.Task;
+import com.kapilagro.sasyak.model.TaskCursor;
+import com.kapilagro.sasyak.model.TaskDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.postgresql.util.PGobject;
 
 @Repository
 public class TaskRepo {
 
+    // Rows fetched per round trip when streaming an export
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
+    private final TaskCounterRepo taskCounterRepo;
+    private final TaskRollupRepo taskRollupRepo;
 
     @Autowired
-    public TaskRepo(JdbcTemplate jdbcTemplate) {
+    public TaskRepo(JdbcTemplate jdbcTemplate, TaskCounterRepo taskCounterRepo, TaskRollupRepo taskRollupRepo) {
         this.jdbcTemplate = jdbcTemplate;
+        this.taskCounterRepo = taskCounterRepo;
+        this.taskRollupRepo = taskRollupRepo;
     }
 
     // Row mapper for Task
@@ -51,32 +65,14 @@ public class TaskRepo {
                 .build();
     };
 
-    // Count tasks by tenant
+    // Count tasks by tenant (served from task_counters)
     public int countByTenantId(UUID tenantId) {
-        String sql = "SELECT COUNT(*) FROM tasks WHERE tenant_id = ?";
-        return jdbcTemplate.queryForObject(sql, Integer.class, tenantId);
+        return taskCounterRepo.countByTenantId(tenantId);
     }
 
+    // Task counts by status (served from task_counters)
     public Map<String, Integer> getTaskStatusBreakdown(UUID tenantId) {
-        String sql = "SELECT status, COUNT(*) as count FROM tasks WHERE tenant_id = ? GROUP BY status";
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, tenantId);
-
-        Map<String, Integer> statusBreakdown = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            Object statusObj = row.get("status");
-            String status;
-
-            if (statusObj instanceof PGobject) {
-                status = ((PGobject) statusObj).getValue();
-            } else {
-                status = String.valueOf(statusObj);
-            }
-
-            Integer count = ((Number) row.get("count")).intValue();
-            statusBreakdown.put(status, count);
-        }
-
-        return statusBreakdown;
+        return taskCounterRepo.getStatusBreakdown(tenantId);
     }
 
     // Count recent tasks
@@ -86,11 +82,13 @@ public class TaskRepo {
     }
 
     // Save new task
+    @Transactional
     public int save(Task task) {
         String sql = "INSERT INTO tasks " +
                 "(tenant_id, created_by_id, assigned_to_id, task_type, details_json, images, description, implementation, status) " +
                 "VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?::jsonb, ?)";
 
+        String status = task.getStatus() != null ? task.getStatus() : "submitted";
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
@@ -109,19 +107,83 @@ public class TaskRepo {
             ps.setString(6, task.getImagesJson() != null ? task.getImagesJson() : "[]");
             ps.setString(7, task.getDescription());
             ps.setString(8, task.getImplementationJson() != null ? task.getImplementationJson() : "{}");
-            ps.setString(9, task.getStatus() != null ? task.getStatus() : "submitted");
+            ps.setString(9, status);
 
             return ps;
         }, keyHolder);
 
         Map<String, Object> keys = keyHolder.getKeys();
         if (keys != null) {
+            taskCounterRepo.adjust(task.getTenantId(), status, task.getTaskType(), 1);
+            taskRollupRepo.apply(null, Task.builder()
+                    .tenantId(task.getTenantId())
+                    .createdById(task.getCreatedById())
+                    .assignedToId(task.getAssignedToId())
+                    .taskType(task.getTaskType())
+                    .status(status)
+                    .createdAt(toOffsetDateTime(keys.get("created_at")))
+                    .updatedAt(toOffsetDateTime(keys.get("updated_at")))
+                    .build());
             return (int) keys.get("task_id");
         } else {
             throw new IllegalStateException("Failed to retrieve task_id after insertion.");
         }
     }
 
+    // Generated timestamp columns come back as java.sql.Timestamp in the key map
+    private static OffsetDateTime toOffsetDateTime(Object value) {
+        if (value instanceof OffsetDateTime) {
+            return (OffsetDateTime) value;
+        }
+        return ((Timestamp) value).toInstant().atOffset(ZoneOffset.UTC);
+    }
+
+    // Stream a tenant's tasks created in [from, to) oldest first, with creator and assignee names.
+    // Rows are read through a server-side cursor (fetchSize), so callers must be inside a transaction
+    // and should not hold on to the DTOs.
+    public void exportTasks(UUID tenantId, LocalDate from, LocalDate to, Consumer<TaskDTO> consumer) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT t.*, c.name AS created_by_name, a.name AS assigned_to_name FROM tasks t " +
+                "LEFT JOIN users c ON c.user_id = t.created_by_id " +
+                "LEFT JOIN users a ON a.user_id = t.assigned_to_id " +
+                "WHERE t.tenant_id = ?");
+        List<Object> params = new ArrayList<>();
+        params.add(tenantId);
+        if (from != null) {
+            sql.append(" AND t.created_at >= ?");
+            params.add(java.sql.Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND t.created_at < ?");
+            params.add(java.sql.Date.valueOf(to.plusDays(1)));
+        }
+        sql.append(" ORDER BY t.created_at, t.task_id");
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql.toString());
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            Task task = taskRowMapper.mapRow(rs, 0);
+            consumer.accept(TaskDTO.builder()
+                    .id(task.getTaskId())
+                    .taskType(task.getTaskType())
+                    .description(task.getDescription())
+                    .status(task.getStatus())
+                    .createdBy(rs.getString("created_by_name"))
+                    .assignedTo(rs.getString("assigned_to_name"))
+                    .createdAt(task.getCreatedAt())
+                    .updatedAt(task.getUpdatedAt())
+                    .detailsJson(task.getDetailsJson())
+                    .imagesJson(task.getImagesJson())
+                    .implementationJson(task.getImplementationJson())
+                    .build());
+        });
+    }
+
     // Get task by ID
     public Optional<Task> getById(int taskId) {
         String sql = "SELECT * FROM tasks WHERE task_id = ?";
@@ -132,27 +194,125 @@ public class TaskRepo {
         }
     }
 
+    // Get task by ID, but only if the user may access it: creator, assignee,
+    // manager of either of them, or an ADMIN of the task's tenant
+    public Optional<Task> getByIdForUser(int taskId, int userId, UUID tenantId) {
+        String sql = "SELECT t.* FROM tasks t " +
+                "LEFT JOIN users c ON c.user_id = t.created_by_id " +
+                "LEFT JOIN users a ON a.user_id = t.assigned_to_id " +
+                "WHERE t.task_id = ? AND t.tenant_id = ? AND (" +
+                "t.created_by_id = ? OR t.assigned_to_id = ? OR c.manager_id = ? OR a.manager_id = ? " +
+                "OR EXISTS (SELECT 1 FROM users me WHERE me.user_id = ? AND me.tenant_id = t.tenant_id AND UPPER(me.role) = 'ADMIN'))";
+        return jdbcTemplate.query(sql, taskRowMapper, taskId, tenantId, userId, userId, userId, userId, userId)
+                .stream()
+                .findFirst();
+    }
+
     // Get tasks by tenant ID
     public List<Task> getByTenantId(UUID tenantId, int page, int size) {
-        String sql = "SELECT * FROM tasks WHERE tenant_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = "SELECT * FROM tasks WHERE tenant_id = ? ORDER BY created_at DESC, task_id DESC LIMIT ? OFFSET ?";
         int offset = page * size;
         return jdbcTemplate.query(sql, taskRowMapper, tenantId, size, offset);
     }
 
     // Get tasks created by a user
     public List<Task> getByCreatedBy(UUID tenantId, int userId, int page, int size) {
-        String sql = "SELECT * FROM tasks WHERE tenant_id = ? AND created_by_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = "SELECT * FROM tasks WHERE tenant_id = ? AND created_by_id = ? ORDER BY created_at DESC, task_id DESC LIMIT ? OFFSET ?";
         int offset = page * size;
         return jdbcTemplate.query(sql, taskRowMapper, tenantId, userId, size, offset);
     }
 
     // Get tasks assigned to a user
     public List<Task> getByAssignedTo(UUID tenantId, int userId, int page, int size) {
-        String sql = "SELECT * FROM tasks WHERE tenant_id = ? AND assigned_to_id = ? ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = "SELECT * FROM tasks WHERE tenant_id = ? AND assigned_to_id = ? ORDER BY created_at DESC, task_id DESC LIMIT ? OFFSET ?";
         int offset = page * size;
         return jdbcTemplate.query(sql, taskRowMapper, tenantId, userId, size, offset);
     }
 
+    // Keyset variants of the task list queries. A null cursor returns the first page;
+    // otherwise rows strictly after the cursor in (created_at, task_id) DESC order.
+    public List<Task> getByTenantId(UUID tenantId, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t WHERE t.tenant_id = ?",
+                after, size, tenantId);
+    }
+
+    public List<Task> getByCreatedBy(UUID tenantId, int userId, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t WHERE t.tenant_id = ? AND t.created_by_id = ?",
+                after, size, tenantId, userId);
+    }
+
+    public List<Task> getByAssignedTo(UUID tenantId, int userId, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t WHERE t.tenant_id = ? AND t.assigned_to_id = ?",
+                after, size, tenantId, userId);
+    }
+
+    public List<Task> getByStatus(UUID tenantId, String status, int createdById, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t WHERE t.tenant_id = ? AND UPPER(t.status) = UPPER(?) AND t.created_by_id = ?",
+                after, size, tenantId, status, createdById);
+    }
+
+    public List<Task> getByTaskType(UUID tenantId, String taskType, int createdById, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t WHERE t.tenant_id = ? AND UPPER(t.task_type) = UPPER(?) AND t.created_by_id = ?",
+                after, size, tenantId, taskType, createdById);
+    }
+
+    public List<Task> getTasksByManager(UUID tenantId, int managerId, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t JOIN users u ON t.created_by_id = u.user_id " +
+                        "WHERE t.tenant_id = ? AND u.manager_id = ?",
+                after, size, tenantId, managerId);
+    }
+
+    // Tasks whose details_json contains every given top-level key/value pair (GIN-indexed @>)
+    public List<Task> searchByDetails(UUID tenantId, Map<String, String> details, TaskCursor after, int size) {
+        return queryPage("SELECT t.* FROM tasks t WHERE t.tenant_id = ? AND t.details_json @> jsonb_object(?::text[])",
+                after, size, tenantId, toKeyValueArray(details));
+    }
+
+    // Full-text search over description, key detail fields and advice text, best matches first.
+    // Optional details narrow the matches the same way as searchByDetails.
+    public List<Task> searchByText(UUID tenantId, String query, Map<String, String> details, int page, int size) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT t.* FROM tasks t, websearch_to_tsquery('english', ?) q " +
+                "WHERE t.tenant_id = ? AND t.search_vector @@ q");
+        List<Object> params = new ArrayList<>();
+        params.add(query);
+        params.add(tenantId);
+
+        if (!details.isEmpty()) {
+            sql.append(" AND t.details_json @> jsonb_object(?::text[])");
+            params.add(toKeyValueArray(details));
+        }
+
+        sql.append(" ORDER BY ts_rank(t.search_vector, q) DESC, t.created_at DESC, t.task_id DESC LIMIT ? OFFSET ?");
+        params.add(size);
+        params.add(page * size);
+
+        return jdbcTemplate.query(sql.toString(), taskRowMapper, params.toArray());
+    }
+
+    // {k1: v1, k2: v2} as the flat {k1, v1, k2, v2} array jsonb_object() expects
+    private static String[] toKeyValueArray(Map<String, String> details) {
+        return details.entrySet().stream()
+                .flatMap(e -> Stream.of(e.getKey(), e.getValue()))
+                .toArray(String[]::new);
+    }
+
+    private List<Task> queryPage(String baseSql, TaskCursor after, int size, Object... filterParams) {
+        StringBuilder sql = new StringBuilder(baseSql);
+        List<Object> params = new ArrayList<>(Arrays.asList(filterParams));
+
+        if (after != null) {
+            sql.append(" AND (t.created_at, t.task_id) < (?, ?)");
+            params.add(after.getCreatedAt());
+            params.add(after.getTaskId());
+        }
+
+        sql.append(" ORDER BY t.created_at DESC, t.task_id DESC LIMIT ?");
+        params.add(size);
+
+        return jdbcTemplate.query(sql.toString(), taskRowMapper, params.toArray());
+    }
+
     // Get tasks by status
     public List<Task> getByStatus(UUID tenantId, String status, int createdById, int page, int size) {
         StringBuilder sql = new StringBuilder(
@@ -166,7 +326,7 @@ public class TaskRepo {
         params.add(status);
         params.add(createdById);
 
-        sql.append(" ORDER BY t.created_at DESC LIMIT ? OFFSET ?");
+        sql.append(" ORDER BY t.created_at DESC, t.task_id DESC LIMIT ? OFFSET ?");
         int offset = page * size;
         params.add(size);
         params.add(offset);
@@ -189,24 +349,57 @@ public class TaskRepo {
         return jdbcTemplate.queryForObject(sql.toString(), Long.class, params.toArray());
     }
     // Update task status
+    @Transactional
     public boolean updateStatus(int taskId, String status) {
-        String sql = "UPDATE tasks SET status = ?, updated_at = CURRENT_TIMESTAMP WHERE task_id = ?";
-        int updated = jdbcTemplate.update(sql, status, taskId);
-        return updated > 0;
+        return update("status = ?", taskId, status);
     }
 
     // Update task implementation
+    @Transactional
     public boolean updateImplementation(int taskId, String implementationJson) {
-        String sql = "UPDATE tasks SET implementation = ?::jsonb, status = 'implemented', updated_at = CURRENT_TIMESTAMP WHERE task_id = ?";
-        int updated = jdbcTemplate.update(sql, implementationJson, taskId);
-        return updated > 0;
+        return update("implementation = ?::jsonb, status = 'implemented'", taskId, implementationJson);
     }
 
     // Assign task to user
+    @Transactional
     public boolean assignTask(int taskId, int assignedToId) {
-        String sql = "UPDATE tasks SET assigned_to_id = ?, updated_at = CURRENT_TIMESTAMP WHERE task_id = ?";
-        int updated = jdbcTemplate.update(sql, assignedToId, taskId);
-        return updated > 0;
+        return update("assigned_to_id = ?", taskId, assignedToId);
+    }
+
+    // Apply an update to one task and feed its before/after images to the summary tables.
+    // The sub-select locks the row, so the before image is the one this update replaced.
+    private boolean update(String setClause, int taskId, Object... setParams) {
+        String sql = "UPDATE tasks t SET " + setClause + ", updated_at = CURRENT_TIMESTAMP " +
+                "FROM (SELECT task_id, status, assigned_to_id, updated_at FROM tasks WHERE task_id = ? FOR UPDATE) old " +
+                "WHERE t.task_id = old.task_id " +
+                "RETURNING t.*, old.status AS old_status, old.assigned_to_id AS old_assigned_to_id, old.updated_at AS old_updated_at";
+
+        List<Object> params = new ArrayList<>(Arrays.asList(setParams));
+        params.add(taskId);
+
+        List<Task[]> changes = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Task after = taskRowMapper.mapRow(rs, rowNum);
+            Object oldStatusObj = rs.getObject("old_status");
+            Task before = Task.builder()
+                    .taskId(after.getTaskId())
+                    .tenantId(after.getTenantId())
+                    .createdById(after.getCreatedById())
+                    .assignedToId(rs.getObject("old_assigned_to_id", Integer.class))
+                    .taskType(after.getTaskType())
+                    .status((oldStatusObj instanceof PGobject) ? ((PGobject) oldStatusObj).getValue() : rs.getString("old_status"))
+                    .createdAt(after.getCreatedAt())
+                    .updatedAt(rs.getObject("old_updated_at", OffsetDateTime.class))
+                    .build();
+            return new Task[]{before, after};
+        }, params.toArray());
+
+        if (changes.isEmpty()) {
+            return false;
+        }
+
+        taskCounterRepo.apply(changes.get(0)[0], changes.get(0)[1]);
+        taskRollupRepo.apply(changes.get(0)[0], changes.get(0)[1]);
+        return true;
     }
 
     // Count tasks created by a user
@@ -221,51 +414,18 @@ public class TaskRepo {
         return jdbcTemplate.queryForObject(sql, Integer.class, tenantId, userId);
     }
 
-    // Get task counts by type
+    // Get task counts by type (served from task_counters)
     public Map<String, Integer> getTaskCountsByType(UUID tenantId) {
-        String sql = "SELECT task_type, COUNT(*) as count FROM tasks WHERE tenant_id = ? GROUP BY task_type";
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, tenantId);
-
-        Map<String, Integer> typeCounts = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            Object typeObj = row.get("task_type");
-            String type = (typeObj instanceof PGobject) ? ((PGobject) typeObj).getValue() : String.valueOf(typeObj);
-            Integer count = ((Number) row.get("count")).intValue();
-            typeCounts.put(type, count);
-        }
-        return typeCounts;
+        return taskCounterRepo.getTypeBreakdown(tenantId);
     }
 
-    // Get task counts by user
+    // Get task counts by user (served from task_daily_rollups)
     public Map<String, Integer> getTaskCountsByUser(UUID tenantId) {
-        String sql = "SELECT u.name, COUNT(t.task_id) as count " +
-                "FROM tasks t JOIN users u ON t.created_by_id = u.user_id " +
-                "WHERE t.tenant_id = ? GROUP BY u.name";
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, tenantId);
-
-        Map<String, Integer> userCounts = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            String name = (String) row.get("name");
-            Integer count = ((Number) row.get("count")).intValue();
-            userCounts.put(name, count);
-        }
-
-        return userCounts;
+        return taskRollupRepo.getCountsByCreator(tenantId);
     }
-    // Get average task completion time by type
+    // Get average task completion time by type (served from task_daily_rollups)
     public Map<String, Double> getAvgCompletionTimeByType(UUID tenantId) {
-        String sql = "SELECT task_type, AVG(EXTRACT(EPOCH FROM (updated_at - created_at))/86400) as avg_days " +
-                "FROM tasks WHERE tenant_id = ? AND status = 'implemented' GROUP BY task_type";
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, tenantId);
-
-        Map<String, Double> avgTimes = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            Object typeObj = row.get("task_type");
-            String type = (typeObj instanceof PGobject) ? ((PGobject) typeObj).getValue() : String.valueOf(typeObj);
-            Double avgDays = ((Number) row.get("avg_days")).doubleValue();
-            avgTimes.put(type, Math.round(avgDays * 1000.0) / 1000.0); // Round to 3 decimal places
-        }
-        return avgTimes;
+        return taskRollupRepo.getAvgCompletionDaysByType(tenantId);
     }
 
     public List<Task> getByTaskType(UUID tenantId, String taskType, int createdById, int page, int size) {
@@ -273,7 +433,7 @@ public class TaskRepo {
                 "WHERE tenant_id = ? " +
                 "AND UPPER(task_type) = UPPER(?) " +
                 "AND created_by_id = ? " +
-                "ORDER BY created_at DESC LIMIT ? OFFSET ?";
+                "ORDER BY created_at DESC, task_id DESC LIMIT ? OFFSET ?";
         int offset = page * size;
         return jdbcTemplate.query(sql, taskRowMapper, tenantId, taskType, createdById, size, offset);
     }
@@ -285,65 +445,31 @@ public class TaskRepo {
         return jdbcTemplate.queryForObject(sql, Integer.class, tenantId, taskType);
     }
 
-    // Get tasks completed per day for date range
+    // Get tasks completed per day for date range (served from task_daily_rollups, whole days)
     public List<Map<String, Object>> getTasksCompletedPerDay(UUID tenantId, LocalDateTime startDate, LocalDateTime endDate) {
-        String sql = "SELECT DATE(updated_at) as date, COUNT(*) as count FROM tasks " +
-                "WHERE tenant_id = ? AND status = 'implemented' AND updated_at BETWEEN ? AND ? " +
-                "GROUP BY DATE(updated_at) ORDER BY date";
-        return jdbcTemplate.queryForList(sql, tenantId, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+        return taskRollupRepo.getCompletedPerDay(tenantId, startDate.toLocalDate(), endDate.toLocalDate());
     }
 
-    // Get tasks created per day for date range
+    // Get tasks created per day for date range (served from task_daily_rollups, whole days)
     public List<Map<String, Object>> getTasksCreatedPerDay(UUID tenantId, LocalDateTime startDate, LocalDateTime endDate) {
-        String sql = "SELECT DATE(created_at) as date, COUNT(*) as count FROM tasks " +
-                "WHERE tenant_id = ? AND created_at BETWEEN ? AND ? " +
-                "GROUP BY DATE(created_at) ORDER BY date";
-        return jdbcTemplate.queryForList(sql, tenantId, Timestamp.valueOf(startDate), Timestamp.valueOf(endDate));
+        return taskRollupRepo.getCreatedPerDay(tenantId, startDate.toLocalDate(), endDate.toLocalDate());
     }
 
-    // Get average completion time by user
+    // Get average completion time by user (served from task_daily_rollups)
     public Map<String, Double> getAvgCompletionTimeByUser(UUID tenantId) {
-        String sql = "SELECT u.name, AVG(EXTRACT(EPOCH FROM (t.updated_at - t.created_at))/86400) as avg_days " +
-                "FROM tasks t JOIN users u ON t.assigned_to_id = u.user_id " +
-                "WHERE t.tenant_id = ? AND t.status = 'implemented' GROUP BY u.name";
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, tenantId);
-
-        Map<String, Double> avgTimes = new HashMap<>();
-        for (Map<String, Object> row : rows) {
-            String name = (String) row.get("name");
-            Double avgDays = ((Number) row.get("avg_days")).doubleValue();
-            avgTimes.put(name, avgDays);
-        }
-
-        return avgTimes;
+        return taskRollupRepo.getAvgCompletionDaysByAssignee(tenantId);
     }
 
-    // Get task completion rate by user
+    // Get task completion rate by user (served from task_daily_rollups)
     public Map<String, Object> getTaskCompletionRateByUser(UUID tenantId) {
-        String sql = "SELECT u.name, " +
-                "COUNT(CASE WHEN t.status = 'implemented' THEN 1 ELSE NULL END) as completed, " +
-                "COUNT(*) as total, " +
-                "ROUND(COUNT(CASE WHEN t.status = 'implemented' THEN 1 ELSE NULL END)::NUMERIC / COUNT(*)::NUMERIC * 100, 2) as rate " +
-                "FROM tasks t JOIN users u ON t.assigned_to_id = u.user_id " +
-                "WHERE t.tenant_id = ? GROUP BY u.name";
-        return jdbcTemplate.queryForList(sql, tenantId).stream()
-                .collect(Collectors.toMap(
-                        row -> (String) row.get("name"),
-                        row -> {
-                            Map<String, Object> result = new HashMap<>();
-                            result.put("completed", ((Number) row.get("completed")).intValue());
-                            result.put("total", ((Number) row.get("total")).intValue());
-                            result.put("rate", ((Number) row.get("rate")).doubleValue());
-                            return result;
-                        }
-                ));
+        return taskRollupRepo.getCompletionRateByAssignee(tenantId);
     }
 
     public List<Task> getTasksByManager(UUID tenantId, int managerId, int page, int size) {
         String sql = "SELECT t.* FROM tasks t " +
                 "JOIN users u ON t.created_by_id = u.user_id " +
                 "WHERE t.tenant_id = ? AND u.manager_id = ? " +
-                "ORDER BY t.created_at DESC LIMIT ? OFFSET ?";
+                "ORDER BY t.created_at DESC, t.task_id DESC LIMIT ? OFFSET ?";
         int offset = page * size;
         return jdbcTemplate.query(sql, taskRowMapper, tenantId, managerId, size, offset);
     }
@@ -0,0 +1,197 @@
+package com.kapilagro.sasyak.repository;
+
+import com.kapilagro.sasyak.model.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Daily per-tenant task aggregates behind the report endpoints.
+ * A task contributes one created_count on the day it was created and, while it is
+ * implemented, one implemented_count (plus its completion time) on the day it was last
+ * updated, always under its current type, creator and assignee. Writers call
+ * {@link #apply} with the task's before and after images in the same transaction.
+ */
+@Repository
+public class TaskRollupRepo {
+
+    // Rollup rows a set of tasks contributes; shared by rebuild() and its drift check
+    private static final String CONTRIBUTIONS =
+            "SELECT tenant_id, day, task_type, created_by_id, assigned_to_id, " +
+            "SUM(created_count) AS created_count, SUM(implemented_count) AS implemented_count, " +
+            "SUM(implemented_seconds) AS implemented_seconds FROM (" +
+            "SELECT tenant_id, created_at::date AS day, COALESCE(task_type::text, '') AS task_type, " +
+            "COALESCE(created_by_id, 0) AS created_by_id, COALESCE(assigned_to_id, 0) AS assigned_to_id, " +
+            "1 AS created_count, 0 AS implemented_count, 0::double precision AS implemented_seconds FROM tasks " +
+            "UNION ALL " +
+            "SELECT tenant_id, updated_at::date, COALESCE(task_type::text, ''), " +
+            "COALESCE(created_by_id, 0), COALESCE(assigned_to_id, 0), " +
+            "0, 1, EXTRACT(EPOCH FROM (updated_at - created_at))::double precision FROM tasks " +
+            "WHERE status = 'implemented'" +
+            ") c GROUP BY 1, 2, 3, 4, 5";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public TaskRollupRepo(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Replace a task's old contribution with its new one. Either side may be null for inserts and deletes.
+    public void apply(Task before, Task after) {
+        Map<List<Object>, double[]> deltas = new LinkedHashMap<>();
+        contribute(deltas, before, -1);
+        contribute(deltas, after, 1);
+
+        List<Object[]> rows = new ArrayList<>();
+        deltas.forEach((key, delta) -> {
+            if (delta[0] != 0 || delta[1] != 0 || delta[2] != 0) {
+                rows.add(new Object[]{key.get(0), key.get(1), key.get(2), key.get(3), key.get(4),
+                        (int) delta[0], (int) delta[1], delta[2]});
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        // The day is taken in the database session's time zone, as the tasks table queries did
+        String sql = "INSERT INTO task_daily_rollups " +
+                "(tenant_id, day, task_type, created_by_id, assigned_to_id, created_count, implemented_count, implemented_seconds) " +
+                "VALUES (?, CAST(? AS timestamptz)::date, ?, ?, ?, ?, ?, ?) " +
+                "ON CONFLICT (tenant_id, day, task_type, created_by_id, assigned_to_id) DO UPDATE SET " +
+                "created_count = task_daily_rollups.created_count + EXCLUDED.created_count, " +
+                "implemented_count = task_daily_rollups.implemented_count + EXCLUDED.implemented_count, " +
+                "implemented_seconds = task_daily_rollups.implemented_seconds + EXCLUDED.implemented_seconds";
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    private void contribute(Map<List<Object>, double[]> deltas, Task task, int sign) {
+        if (task == null) {
+            return;
+        }
+        String taskType = Objects.toString(task.getTaskType(), "");
+        int createdBy = task.getCreatedById();
+        int assignedTo = task.getAssignedToId() != null ? task.getAssignedToId() : 0;
+
+        deltas.computeIfAbsent(List.of(task.getTenantId(), task.getCreatedAt(), taskType, createdBy, assignedTo),
+                k -> new double[3])[0] += sign;
+
+        if ("implemented".equals(task.getStatus())) {
+            double seconds = Duration.between(task.getCreatedAt(), task.getUpdatedAt()).toNanos() / 1e9;
+            double[] delta = deltas.computeIfAbsent(
+                    List.of(task.getTenantId(), task.getUpdatedAt(), taskType, createdBy, assignedTo),
+                    k -> new double[3]);
+            delta[1] += sign;
+            delta[2] += sign * seconds;
+        }
+    }
+
+    // Tasks created per day in [from, to]
+    public List<Map<String, Object>> getCreatedPerDay(UUID tenantId, LocalDate from, LocalDate to) {
+        return perDay("created_count", tenantId, from, to);
+    }
+
+    // Tasks completed (currently implemented, by day of last update) per day in [from, to]
+    public List<Map<String, Object>> getCompletedPerDay(UUID tenantId, LocalDate from, LocalDate to) {
+        return perDay("implemented_count", tenantId, from, to);
+    }
+
+    private List<Map<String, Object>> perDay(String column, UUID tenantId, LocalDate from, LocalDate to) {
+        String sql = "SELECT day AS date, SUM(" + column + ") AS count FROM task_daily_rollups " +
+                "WHERE tenant_id = ? AND day BETWEEN ? AND ? " +
+                "GROUP BY day HAVING SUM(" + column + ") > 0 ORDER BY day";
+        return jdbcTemplate.queryForList(sql, tenantId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    // Tasks by creator name
+    public Map<String, Integer> getCountsByCreator(UUID tenantId) {
+        String sql = "SELECT u.name, SUM(r.created_count) AS count " +
+                "FROM task_daily_rollups r JOIN users u ON r.created_by_id = u.user_id " +
+                "WHERE r.tenant_id = ? GROUP BY u.name HAVING SUM(r.created_count) > 0";
+        Map<String, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getString("name"), rs.getInt("count"));
+        }, tenantId);
+        return counts;
+    }
+
+    // Average completion time in days by task type
+    public Map<String, Double> getAvgCompletionDaysByType(UUID tenantId) {
+        String sql = "SELECT task_type AS label, SUM(implemented_seconds) / SUM(implemented_count) / 86400 AS avg_days " +
+                "FROM task_daily_rollups WHERE tenant_id = ? GROUP BY task_type HAVING SUM(implemented_count) > 0";
+        Map<String, Double> avgTimes = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            avgTimes.put(rs.getString("label"), Math.round(rs.getDouble("avg_days") * 1000.0) / 1000.0);
+        }, tenantId);
+        return avgTimes;
+    }
+
+    // Average completion time in days by assignee name
+    public Map<String, Double> getAvgCompletionDaysByAssignee(UUID tenantId) {
+        String sql = "SELECT u.name, SUM(r.implemented_seconds) / SUM(r.implemented_count) / 86400 AS avg_days " +
+                "FROM task_daily_rollups r JOIN users u ON r.assigned_to_id = u.user_id " +
+                "WHERE r.tenant_id = ? GROUP BY u.name HAVING SUM(r.implemented_count) > 0";
+        Map<String, Double> avgTimes = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            avgTimes.put(rs.getString("name"), rs.getDouble("avg_days"));
+        }, tenantId);
+        return avgTimes;
+    }
+
+    // Completed / total tasks and completion rate by assignee name
+    public Map<String, Object> getCompletionRateByAssignee(UUID tenantId) {
+        String sql = "SELECT u.name, SUM(r.implemented_count) AS completed, SUM(r.created_count) AS total " +
+                "FROM task_daily_rollups r JOIN users u ON r.assigned_to_id = u.user_id " +
+                "WHERE r.tenant_id = ? GROUP BY u.name HAVING SUM(r.created_count) > 0";
+        return jdbcTemplate.queryForList(sql, tenantId).stream()
+                .collect(Collectors.toMap(
+                        row -> (String) row.get("name"),
+                        row -> {
+                            int completed = ((Number) row.get("completed")).intValue();
+                            int total = ((Number) row.get("total")).intValue();
+                            Map<String, Object> result = new HashMap<>();
+                            result.put("completed", completed);
+                            result.put("total", total);
+                            result.put("rate", Math.round(completed * 10000.0 / total) / 100.0);
+                            return result;
+                        }
+                ));
+    }
+
+    public boolean isEmpty() {
+        String sql = "SELECT NOT EXISTS (SELECT 1 FROM task_daily_rollups)";
+        return jdbcTemplate.queryForObject(sql, Boolean.class);
+    }
+
+    /**
+     * Rebuild every rollup row from the tasks table and return how many rows had drifted.
+     * Locks the table like TaskCounterRepo.rebuild so concurrent task writes wait for it.
+     */
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.execute("LOCK TABLE task_daily_rollups IN EXCLUSIVE MODE");
+
+        String rounded = "SELECT tenant_id, day, task_type, created_by_id, assigned_to_id, created_count, " +
+                "implemented_count, ROUND(implemented_seconds::numeric) AS implemented_seconds FROM ";
+        String driftSql = "WITH fresh AS (" + rounded + "(" + CONTRIBUTIONS + ") f), " +
+                "stored AS (" + rounded + "task_daily_rollups " +
+                "WHERE created_count <> 0 OR implemented_count <> 0) " +
+                "SELECT COUNT(*) FROM ((SELECT * FROM stored EXCEPT SELECT * FROM fresh) " +
+                "UNION ALL (SELECT * FROM fresh EXCEPT SELECT * FROM stored)) d";
+        Integer drift = jdbcTemplate.queryForObject(driftSql, Integer.class);
+
+        jdbcTemplate.update("DELETE FROM task_daily_rollups");
+        jdbcTemplate.update("INSERT INTO task_daily_rollups " +
+                "(tenant_id, day, task_type, created_by_id, assigned_to_id, created_count, implemented_count, implemented_seconds) " +
+                CONTRIBUTIONS);
+
+        return drift != null ? drift : 0;
+    }
+}
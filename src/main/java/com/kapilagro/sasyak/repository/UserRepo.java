@@ -4,6 +4,7 @@ import com.kapilagro.sasyak.model.User;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -12,6 +13,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -97,6 +100,12 @@ public class UserRepo {
         }
     }
 
+    // Swap in a rehashed password only if the stored hash is still the one that was verified
+    public boolean replacePasswordHash(int userId, String currentHash, String newHash) {
+        String query = "UPDATE users SET password = ? WHERE user_id = ? AND password = ?";
+        return template.update(query, newHash, userId, currentHash) > 0;
+    }
+
     public User getSuperAdminByEmail(String email) {
         String query = "SELECT * FROM users WHERE email = ? AND role = 'SUPER_ADMIN'";
         try {
@@ -226,6 +235,37 @@ public boolean update(User user) {
                 .findFirst();
     }
 
+    // Resolve display names for a set of user ids in a single round trip
+    public Map<Integer, String> getUserNamesByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+
+        String query = "SELECT user_id, name FROM users WHERE user_id = ANY(?)";
+        Map<Integer, String> names = new HashMap<>();
+        template.query(query,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                (RowCallbackHandler) rs -> names.put(rs.getInt("user_id"), rs.getString("name")));
+        return names;
+    }
+
+    // Load a set of users in a single round trip, keyed by id
+    public Map<Integer, User> getUsersByIds(Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return Map.of();
+        }
+
+        String query = "SELECT * FROM users WHERE user_id = ANY(?)";
+        Map<Integer, User> users = new HashMap<>();
+        template.query(query,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("integer", ids.toArray())),
+                (RowCallbackHandler) rs -> {
+                    User user = userRowMapper.mapRow(rs, 0);
+                    users.put(user.getUserId(), user);
+                });
+        return users;
+    }
+
     public List<User> getUsersByTenantAndRole(UUID tenantId, String role) {
         // Case-insensitive role search
         String query = "SELECT * FROM users WHERE tenant_id = ? AND UPPER(role) = UPPER(?)";
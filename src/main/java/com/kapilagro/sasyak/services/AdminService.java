@@ -2,19 +2,32 @@ package com.kapilagro.sasyak.services;
 
 import com.kapilagro.sasyak.model.DashBoardResponse;
 import com.kapilagro.sasyak.model.User;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Service
 public class AdminService {
@@ -28,6 +41,33 @@ public class AdminService {
     @Autowired
     AdviceService adviceService;
 
+    @Autowired
+    @Qualifier("dashboardExecutor")
+    private ExecutorService dashboardExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${admin.dashboard.query-timeout-ms:2000}")
+    private long dashboardQueryTimeoutMs;
+
+    @Value("${admin.dashboard.max-concurrent-queries:3}")
+    private int dashboardMaxConcurrentQueries;
+
+    // Shared by all dashboard requests; each query holds a permit while it has a connection
+    private Semaphore dashboardQueryPermits;
+    private TransactionTemplate dashboardTransaction;
+
+    @PostConstruct
+    void initDashboard() {
+        dashboardQueryPermits = new Semaphore(dashboardMaxConcurrentQueries);
+        dashboardTransaction = new TransactionTemplate(transactionManager);
+        dashboardTransaction.setReadOnly(true);
+    }
+
     // Create a new employee
     @Transactional
     public User createEmployee(User employee, UUID tenantId) {
@@ -54,39 +94,78 @@ public class AdminService {
     }
 
 
-    // Get dashboard stats for a tenant
+    // Get dashboard stats for a tenant.
+    // The queries are independent, so they run concurrently; each has its own timeout and
+    // a failing one is reported in unavailableStats instead of failing the whole dashboard.
     public DashBoardResponse getDashboardStats(UUID tenantId) {
-        // Get counts for different user roles
-        int employeeCount = userService.countUsersByTenant(tenantId);
-        int managerCount = userService.countUsersByTenantAndRole(tenantId, "Manager");
-        int supervisorCount = userService.countUsersByTenantAndRole(tenantId, "Supervisor");
-
-        // Get task counts (you'll need to create a TaskService if you don't have one)
-
-        int totalTasks = taskService.countTasksByTenant(tenantId);
-
-        // Get task status breakdown
-        Map<String, Integer> taskStatusBreakdown = taskService.getTaskStatusBreakdown(tenantId);
-
-        // Get recent tasks (e.g., from last 7 days)
-        int recentTasks = taskService.countRecentTasksByTenant(tenantId, 7);
-
-        // Get advice count
-        int adviceCount = adviceService.countAdviceByTenant(tenantId);
+        List<String> unavailable = Collections.synchronizedList(new ArrayList<>());
+
+        CompletableFuture<Integer> employeeCount = fetch("totalEmployees", 0, unavailable,
+                () -> userService.countUsersByTenant(tenantId));
+        CompletableFuture<Integer> managerCount = fetch("totalManagers", 0, unavailable,
+                () -> userService.countUsersByTenantAndRole(tenantId, "Manager"));
+        CompletableFuture<Integer> supervisorCount = fetch("totalSupervisors", 0, unavailable,
+                () -> userService.countUsersByTenantAndRole(tenantId, "Supervisor"));
+        CompletableFuture<Integer> totalTasks = fetch("totalTasks", 0, unavailable,
+                () -> taskService.countTasksByTenant(tenantId));
+        CompletableFuture<Map<String, Integer>> taskStatusBreakdown = fetch("taskStatusBreakdown", Map.of(), unavailable,
+                () -> taskService.getTaskStatusBreakdown(tenantId));
+        // Recent tasks = last 7 days
+        CompletableFuture<Integer> recentTasks = fetch("recentTasks", 0, unavailable,
+                () -> taskService.countRecentTasksByTenant(tenantId, 7));
+        CompletableFuture<Integer> adviceCount = fetch("adviceCount", 0, unavailable,
+                () -> adviceService.countAdviceByTenant(tenantId));
+
+        CompletableFuture.allOf(employeeCount, managerCount, supervisorCount, totalTasks,
+                taskStatusBreakdown, recentTasks, adviceCount).join();
 
         // Build and return the response
         return DashBoardResponse.builder()
-                .totalEmployees(employeeCount)
-                .totalManagers(managerCount)
-                .totalSupervisors(supervisorCount)
-                .totalTasks(totalTasks)
-                .taskStatusBreakdown(taskStatusBreakdown)
-                .recentTasks(recentTasks)
-                .adviceCount(adviceCount)
+                .totalEmployees(employeeCount.join())
+                .totalManagers(managerCount.join())
+                .totalSupervisors(supervisorCount.join())
+                .totalTasks(totalTasks.join())
+                .taskStatusBreakdown(taskStatusBreakdown.join())
+                .recentTasks(recentTasks.join())
+                .adviceCount(adviceCount.join())
+                .unavailableStats(unavailable.isEmpty() ? null : List.copyOf(unavailable))
+                .errorMessage(unavailable.isEmpty() ? null : "Some dashboard stats are unavailable: " + String.join(", ", unavailable))
                 .build();
     }
 
+    // Run one dashboard query on the dashboard executor, falling back to a default on failure or timeout
+    private <T> CompletableFuture<T> fetch(String stat, T fallback, List<String> unavailable, Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> runDashboardQuery(stat, query), dashboardExecutor)
+                .orTimeout(dashboardQueryTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    LoggerFactory.getLogger(getClass()).warn("Dashboard stat {} unavailable: {}", stat, e.toString());
+                    unavailable.add(stat);
+                    return fallback;
+                });
+    }
 
+    // The statement timeout cancels the query in the database and frees its connection;
+    // orTimeout above only stops the response from waiting for it
+    private <T> T runDashboardQuery(String stat, Supplier<T> query) {
+        boolean acquired;
+        try {
+            acquired = dashboardQueryPermits.tryAcquire(dashboardQueryTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting to run " + stat, e);
+        }
+        if (!acquired) {
+            throw new IllegalStateException("Too many dashboard queries running to run " + stat);
+        }
+        try {
+            return dashboardTransaction.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL statement_timeout = " + dashboardQueryTimeoutMs);
+                return query.get();
+            });
+        } finally {
+            dashboardQueryPermits.release();
+        }
+    }
 
     // Get all managers for a tenant
     public List<User> getAllManagers(UUID tenantId) {
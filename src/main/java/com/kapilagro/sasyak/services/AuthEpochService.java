@@ -0,0 +1,94 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.AuthEpochRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of auth_epochs so claims tokens can be checked without a query.
+ * Local bumps apply on commit; bumps from other instances arrive with the next poll.
+ */
+@Service
+public class AuthEpochService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuthEpochService.class);
+
+    // Re-read a little before the last change seen, to tolerate commit-order skew
+    private static final long POLL_OVERLAP_SECONDS = 5;
+
+    private final AuthEpochRepo authEpochRepo;
+    private final Map<Integer, Long> epochs = new ConcurrentHashMap<>();
+    private volatile OffsetDateTime lastChange;
+
+    @Autowired
+    public AuthEpochService(AuthEpochRepo authEpochRepo) {
+        this.authEpochRepo = authEpochRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.claims-token.epoch-poll-ms:15000}")
+    public void refresh() {
+        try {
+            Map<Integer, Long> changed = new HashMap<>();
+            OffsetDateTime since = lastChange != null ? lastChange.minusSeconds(POLL_OVERLAP_SECONDS) : null;
+            OffsetDateTime latest = authEpochRepo.loadChangedSince(since, changed);
+            changed.forEach((userId, epoch) -> epochs.merge(userId, epoch, Math::max));
+            if (latest != null && (lastChange == null || latest.isAfter(lastChange))) {
+                lastChange = latest;
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh auth epochs: {}", e.getMessage(), e);
+        }
+    }
+
+    // Epoch to stamp into a new token; read from the database so it is never behind
+    public long currentEpoch(int userId) {
+        return authEpochRepo.getEpoch(userId);
+    }
+
+    // A token is current unless the user's epoch moved past the one it was issued with
+    public boolean isCurrent(int userId, long tokenEpoch) {
+        return epochs.getOrDefault(userId, 0L) <= tokenEpoch;
+    }
+
+    // Invalidate a user's claims tokens (role, manager or account changes)
+    public void bumpUser(int userId) {
+        long epoch = authEpochRepo.bumpUser(userId);
+        afterCommit(() -> epochs.merge(userId, epoch, Math::max));
+    }
+
+    // Invalidate claims tokens of every user in a tenant (activation changes)
+    public void bumpTenant(int tenantId) {
+        Map<Integer, Long> bumped = authEpochRepo.bumpTenantUsers(tenantId);
+        afterCommit(() -> bumped.forEach((userId, epoch) -> epochs.merge(userId, epoch, Math::max)));
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.CatalogSnapshot;
+import com.kapilagro.sasyak.repository.CatalogRepo;
+import com.kapilagro.sasyak.repository.CatalogVersionRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catalog snapshots per tenant. A snapshot is served from memory until the tenant's catalog
+ * version moves past it: local writes report their new version on commit, and versions
+ * bumped by other instances arrive with the next poll of catalog_versions.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+
+    // Re-read a little before the last change seen, to tolerate commit-order skew
+    private static final long POLL_OVERLAP_SECONDS = 5;
+
+    private final CatalogRepo catalogRepo;
+    private final CatalogVersionRepo catalogVersionRepo;
+    private final Map<UUID, CatalogSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> latestVersions = new ConcurrentHashMap<>();
+    private volatile OffsetDateTime lastChange;
+
+    @Autowired
+    public CatalogCache(CatalogRepo catalogRepo, CatalogVersionRepo catalogVersionRepo) {
+        this.catalogRepo = catalogRepo;
+        this.catalogVersionRepo = catalogVersionRepo;
+    }
+
+    public CatalogSnapshot get(UUID tenantId) {
+        CatalogSnapshot snapshot = snapshots.get(tenantId);
+        if (snapshot != null && snapshot.getVersion() >= latestVersions.getOrDefault(tenantId, 0L)) {
+            return snapshot;
+        }
+        return load(tenantId);
+    }
+
+    // Record a committed catalog write; older snapshots are rebuilt on their next read
+    public void versionChanged(UUID tenantId, long version) {
+        latestVersions.merge(tenantId, version, Math::max);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadVersions() {
+        refreshVersions();
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.cache.version-poll-ms:15000}")
+    public void refreshVersions() {
+        try {
+            Map<UUID, Long> changed = new HashMap<>();
+            OffsetDateTime since = lastChange != null ? lastChange.minusSeconds(POLL_OVERLAP_SECONDS) : null;
+            OffsetDateTime latest = catalogVersionRepo.loadChangedSince(since, changed);
+            changed.forEach(this::versionChanged);
+            if (latest != null && (lastChange == null || latest.isAfter(lastChange))) {
+                lastChange = latest;
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh catalog versions: {}", e.getMessage(), e);
+        }
+    }
+
+    private CatalogSnapshot load(UUID tenantId) {
+        // Version first: a write committing in between leaves the snapshot labelled older
+        // than its rows, so it is rebuilt again rather than served stale
+        long version = catalogVersionRepo.getVersion(tenantId);
+        CatalogSnapshot loaded = CatalogSnapshot.of(version, catalogRepo.findByTenantId(tenantId));
+        versionChanged(tenantId, version);
+        snapshots.merge(tenantId, loaded, (current, fresh) -> fresh.getVersion() >= current.getVersion() ? fresh : current);
+        log.debug("Loaded catalog snapshot for tenant {} at version {} ({} items)", tenantId, version, loaded.getItems().size());
+        return loaded;
+    }
+}
@@ -0,0 +1,293 @@
+package com.kapilagro.sasyak.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kapilagro.sasyak.model.CatalogImportError;
+import com.kapilagro.sasyak.model.CatalogImportResponse;
+import com.kapilagro.sasyak.model.CatalogImportRow;
+import com.kapilagro.sasyak.model.CatalogRequest;
+import com.kapilagro.sasyak.repository.CatalogRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Bulk catalog import from CSV or NDJSON. The upload is parsed and validated row by row
+ * while it is copied into a staging table, then merged into the catalog with one statement
+ * under a single catalog version bump, so caches are invalidated once per import.
+ */
+@Service
+public class CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportService.class);
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    // Failures beyond this are counted but not listed
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final CatalogRepo catalogRepo;
+    private final CatalogService catalogService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public CatalogImportService(CatalogRepo catalogRepo, CatalogService catalogService, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.catalogRepo = catalogRepo;
+        this.catalogService = catalogService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return CSV.equals(format) || NDJSON.equals(format);
+    }
+
+    // The staging table and COPY are bound to one connection, so everything runs in one transaction
+    public CatalogImportResponse importCatalog(InputStream in, String format, int createdBy, UUID tenantId) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        ImportRows rows = CSV.equals(format) ? new CsvRows(reader) : new NdjsonRows(reader);
+
+        CatalogImportResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                catalogRepo.createImportStaging();
+                int staged = catalogRepo.copyIntoStaging(rows);
+                if (staged == 0) {
+                    return CatalogImportResponse.builder().build();
+                }
+                // Bumped after the upload is staged so the tenant's catalog is only locked for the merge
+                long version = catalogService.bumpVersion(tenantId);
+                CatalogImportResponse merged = catalogRepo.mergeImportStaging(tenantId, createdBy, version);
+                merged.setVersion(version);
+                return merged;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-upload
+            throw e.getCause();
+        }
+
+        response.setReceived(rows.received);
+        response.setFailed(rows.failed);
+        response.setErrors(rows.errors);
+        log.debug("Catalog import for tenantId {}: {} received, {} inserted, {} updated, {} failed",
+                tenantId, rows.received, response.getInserted(), response.getUpdated(), rows.failed);
+        return response;
+    }
+
+    /**
+     * Valid rows of an upload, read lazily; invalid rows are recorded and skipped.
+     */
+    private abstract class ImportRows implements Iterator<CatalogImportRow> {
+        final BufferedReader reader;
+        final List<CatalogImportError> errors = new ArrayList<>();
+        int received;
+        int failed;
+        private CatalogImportRow next;
+
+        ImportRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // The next request in the upload with its line number, or null at the end
+        abstract Map.Entry<Integer, CatalogRequest> read() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    Map.Entry<Integer, CatalogRequest> entry = read();
+                    if (entry == null) {
+                        return false;
+                    }
+                    next = validate(entry.getKey(), entry.getValue());
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public CatalogImportRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CatalogImportRow row = next;
+            next = null;
+            return row;
+        }
+
+        private CatalogImportRow validate(int line, CatalogRequest request) {
+            received++;
+            try {
+                catalogService.validateCatalogRequest(request);
+            } catch (IllegalArgumentException e) {
+                fail(line, e.getMessage());
+                return null;
+            }
+            String details = request.getDetails() != null && !request.getDetails().isBlank()
+                    ? request.getDetails().trim() : null;
+            return new CatalogImportRow(line, request.getCategory().trim(), request.getValue().trim(), details);
+        }
+
+        void fail(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new CatalogImportError(line, message));
+            }
+        }
+    }
+
+    // One JSON object per line: {"category": ..., "value": ..., "details": ...}
+    private class NdjsonRows extends ImportRows {
+        private int lineNumber;
+
+        NdjsonRows(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        Map.Entry<Integer, CatalogRequest> read() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    return Map.entry(lineNumber, objectMapper.readValue(line, CatalogRequest.class));
+                } catch (JsonProcessingException e) {
+                    received++;
+                    fail(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    // RFC 4180 CSV with columns category,value,details; a header row may name them in any order
+    private class CsvRows extends ImportRows {
+        private final int[] lineNumber = {1};
+        private int categoryColumn = 0;
+        private int valueColumn = 1;
+        private int detailsColumn = 2;
+        private boolean started;
+
+        CsvRows(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        Map.Entry<Integer, CatalogRequest> read() throws IOException {
+            while (true) {
+                int line = lineNumber[0];
+                List<String> record;
+                try {
+                    record = readCsvRecord(reader, lineNumber);
+                } catch (IllegalArgumentException e) {
+                    received++;
+                    fail(line, e.getMessage());
+                    continue;
+                }
+                if (record == null) {
+                    return null;
+                }
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                if (!started) {
+                    started = true;
+                    if (isHeader(record)) {
+                        continue;
+                    }
+                }
+                return Map.entry(line, new CatalogRequest(column(record, categoryColumn),
+                        column(record, valueColumn), column(record, detailsColumn)));
+            }
+        }
+
+        private boolean isHeader(List<String> record) {
+            List<String> names = record.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            if (!names.contains("category")) {
+                return false;
+            }
+            categoryColumn = names.indexOf("category");
+            valueColumn = names.indexOf("value");
+            detailsColumn = names.indexOf("details");
+            if (valueColumn < 0) {
+                throw new IllegalArgumentException("CSV header must name the category and value columns");
+            }
+            return true;
+        }
+
+        private String column(List<String> record, int index) {
+            return index >= 0 && index < record.size() ? record.get(index) : null;
+        }
+    }
+
+    /**
+     * Read one CSV record, or null at the end of input. Quoted fields may contain commas,
+     * doubled quotes and line breaks; lineNumber[0] is advanced past every line consumed.
+     */
+    static List<String> readCsvRecord(BufferedReader in, int[] lineNumber) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean read = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            read = true;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber[0]++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                lineNumber[0]++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!read) {
+            return null;
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
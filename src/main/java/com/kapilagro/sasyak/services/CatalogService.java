@@ -1,15 +1,20 @@
 package com.kapilagro.sasyak.services;
 
 import com.kapilagro.sasyak.model.Catalog;
+import com.kapilagro.sasyak.model.CatalogChangesResponse;
 import com.kapilagro.sasyak.model.CatalogItem;
 import com.kapilagro.sasyak.model.CatalogRequest;
 import com.kapilagro.sasyak.model.CatalogResponse;
+import com.kapilagro.sasyak.model.CatalogSnapshot;
 import com.kapilagro.sasyak.repository.CatalogRepo;
+import com.kapilagro.sasyak.repository.CatalogVersionRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -17,7 +22,6 @@ import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Service
 public class CatalogService {
@@ -27,6 +31,13 @@ public class CatalogService {
     @Autowired
     private CatalogRepo catalogRepo;
 
+    @Autowired
+    private CatalogVersionRepo catalogVersionRepo;
+
+    // Reads are served from per-tenant snapshots; writes bump the tenant's catalog version
+    @Autowired
+    private CatalogCache catalogCache;
+
     /**
      * Create a new catalog item
      */
@@ -50,6 +61,7 @@ public class CatalogService {
                     .build();
 
             // Save to database
+            catalog.setVersion(bumpVersion(tenantId));
             int catalogId = catalogRepo.save(catalog);
             catalog.setId(catalogId);
 
@@ -76,11 +88,7 @@ public class CatalogService {
         log.debug("Fetching all catalog items for tenantId: {}", tenantId);
 
         try {
-            List<Catalog> catalogs = catalogRepo.findByTenantId(tenantId);
-
-            return catalogs.stream()
-                    .map(this::mapToResponse)
-                    .collect(Collectors.toList());
+            return catalogCache.get(tenantId).getItems();
 
         } catch (Exception e) {
             log.error("Error fetching catalog items for tenantId: {}, error: {}", tenantId, e.getMessage(), e);
@@ -88,6 +96,61 @@ public class CatalogService {
         }
     }
 
+    /**
+     * Get the tenant's catalog snapshot; its version identifies the content for ETags
+     */
+    public CatalogSnapshot getCatalogSnapshot(UUID tenantId) {
+        return catalogCache.get(tenantId);
+    }
+
+    /**
+     * Get catalog items created, updated or deleted after the given version
+     */
+    public CatalogChangesResponse getCatalogChanges(UUID tenantId, long sinceVersion) {
+        if (sinceVersion < 0) {
+            throw new IllegalArgumentException("Version cannot be negative");
+        }
+
+        try {
+            CatalogSnapshot snapshot = catalogCache.get(tenantId);
+            long version = snapshot.getVersion();
+            if (sinceVersion == 0) {
+                // Rows written before versioning carry version 0, so a first sync is a full listing
+                return CatalogChangesResponse.builder()
+                        .version(version)
+                        .changed(snapshot.getItems())
+                        .deletedIds(List.of())
+                        .build();
+            }
+            if (sinceVersion >= version) {
+                // Nothing newer than the client's copy; answered without a query
+                return CatalogChangesResponse.builder()
+                        .version(version)
+                        .changed(List.of())
+                        .deletedIds(List.of())
+                        .build();
+            }
+
+            // Rows may be newer than the reported version; reapplying them next time is harmless
+            List<CatalogResponse> changed = catalogRepo.findByTenantIdChangedSince(tenantId, sinceVersion).stream()
+                    .map(this::mapToResponse)
+                    .toList();
+            List<Integer> deletedIds = catalogRepo.findDeletedIdsSince(tenantId, sinceVersion);
+
+            log.debug("Catalog changes since version {} for tenantId {}: {} changed, {} deleted",
+                    sinceVersion, tenantId, changed.size(), deletedIds.size());
+            return CatalogChangesResponse.builder()
+                    .version(version)
+                    .changed(changed)
+                    .deletedIds(deletedIds)
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Error fetching catalog changes for tenantId: {}, error: {}", tenantId, e.getMessage(), e);
+            throw new RuntimeException("Failed to fetch catalog changes: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Get catalog items by category
      */
@@ -100,7 +163,7 @@ public class CatalogService {
                 throw new IllegalArgumentException("Category cannot be null or empty");
             }
 
-            List<CatalogItem> catalogItems = catalogRepo.findByTenantIdAndCategory(tenantId, category.trim());
+            List<CatalogItem> catalogItems = catalogCache.get(tenantId).getItemsByCategory(category);
 
             log.debug("Found {} catalog items for category: {}", catalogItems.size(), category);
             return catalogItems;
@@ -131,6 +194,7 @@ public class CatalogService {
             boolean deleted = catalogRepo.deleteByIdAndTenantId(catalogId, tenantId);
 
             if (deleted) {
+                catalogRepo.saveTombstone(catalogId, tenantId, bumpVersion(tenantId));
                 log.debug("Catalog item deleted successfully: id={}", catalogId);
             } else {
                 log.warn("Failed to delete catalog item: id={}", catalogId);
@@ -188,6 +252,7 @@ public class CatalogService {
             catalog.setValue(request.getValue().trim());
             catalog.setDetails(request.getDetails() != null ? request.getDetails().trim() : null);
             catalog.setUpdatedAt(OffsetDateTime.now(ZoneId.of("Asia/Kolkata")));
+            catalog.setVersion(bumpVersion(tenantId));
             // Update in database
             boolean updated = catalogRepo.update(catalog);
 
@@ -213,7 +278,7 @@ public class CatalogService {
         log.debug("Fetching distinct categories for tenantId: {}", tenantId);
 
         try {
-            return catalogRepo.findDistinctCategoriesByTenantId(tenantId);
+            return catalogCache.get(tenantId).getCategories();
         } catch (Exception e) {
             log.error("Error fetching distinct categories for tenantId: {}, error: {}", tenantId, e.getMessage(), e);
             throw new RuntimeException("Failed to fetch categories: " + e.getMessage(), e);
@@ -225,7 +290,7 @@ public class CatalogService {
      */
     public int getCatalogCount(UUID tenantId) {
         try {
-            return catalogRepo.countByTenantId(tenantId);
+            return catalogCache.get(tenantId).getItems().size();
         } catch (Exception e) {
             log.error("Error getting catalog count for tenantId: {}, error: {}", tenantId, e.getMessage(), e);
             return 0;
@@ -237,7 +302,7 @@ public class CatalogService {
      */
     public int getCatalogCountByCategory(UUID tenantId, String category) {
         try {
-            return catalogRepo.countByTenantIdAndCategory(tenantId, category);
+            return catalogCache.get(tenantId).getItemsByCategory(category).size();
         } catch (Exception e) {
             log.error("Error getting catalog count by category for tenantId: {}, category: {}, error: {}",
                     tenantId, category, e.getMessage(), e);
@@ -245,10 +310,28 @@ public class CatalogService {
         }
     }
 
+    /**
+     * Bump the tenant's catalog version in the current transaction and tell the cache once it commits
+     */
+    long bumpVersion(UUID tenantId) {
+        long version = catalogVersionRepo.bump(tenantId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    catalogCache.versionChanged(tenantId, version);
+                }
+            });
+        } else {
+            catalogCache.versionChanged(tenantId, version);
+        }
+        return version;
+    }
+
     /**
      * Helper method to validate catalog request
      */
-    private void validateCatalogRequest(CatalogRequest request) {
+    void validateCatalogRequest(CatalogRequest request) {
         if (request == null) {
             throw new IllegalArgumentException("Catalog request cannot be null");
         }
@@ -10,15 +10,17 @@ import org.springframework.stereotype.Component;
 public class MyUserDetailsService implements UserDetailsService {
 
     private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
 
     // Constructor injection instead of field injection
-    public MyUserDetailsService(UserService userService) {
+    public MyUserDetailsService(UserService userService, UserPrincipalCache userPrincipalCache) {
         this.userService = userService;
+        this.userPrincipalCache = userPrincipalCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userService.getUserByUserEmail(username);
+        User user = userPrincipalCache.get(username, userService::getUserByUserEmail);
         if (user == null) {
             throw new UsernameNotFoundException("User not found with email: " + username);
         }
@@ -19,9 +19,13 @@ public class MyUserPrincipal implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        // Convert role string to GrantedAuthority
-        if (user.getRole() != null && !user.getRole().isEmpty()) {
-            return List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().toUpperCase()));
+        return authoritiesFor(user.getRole());
+    }
+
+    // Convert role string to GrantedAuthority; shared with principals rebuilt from token claims
+    public static List<GrantedAuthority> authoritiesFor(String role) {
+        if (role != null && !role.isEmpty()) {
+            return List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
         }
         return List.of();
     }
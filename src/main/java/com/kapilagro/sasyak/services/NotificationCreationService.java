@@ -1,5 +1,7 @@
 package com.kapilagro.sasyak.services;
 
+import com.kapilagro.sasyak.model.Notification;
+import com.kapilagro.sasyak.repository.NotificationRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -13,6 +15,13 @@ public class NotificationCreationService {
 
     @Autowired
     private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationRepo notificationRepo;
+
+    @Autowired
+    private NotificationService notificationService;
+
     /**
      * Creates a notification for a specific user
      *
@@ -25,13 +34,16 @@ public class NotificationCreationService {
      */
     @Transactional
     public int createNotification(UUID tenantId, int userId, String title, String message, Integer taskId) {
-        String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) " +
-                "VALUES (?, ?, ?, ?, ?) RETURNING notification_id";
-
-        Integer notificationId = jdbcTemplate.queryForObject(sql, Integer.class,
-                tenantId, userId, title, message, taskId);
-
-        return notificationId != null ? notificationId : -1;
+        List<Notification> saved = notificationRepo.saveAll(List.of(Notification.builder()
+                .tenantId(tenantId)
+                .userId(userId)
+                .title(title)
+                .message(message)
+                .taskId(taskId)
+                .build()));
+        notificationService.publish(saved);
+
+        return saved.isEmpty() ? -1 : saved.get(0).getNotificationId();
     }
 
     /**
@@ -46,10 +58,6 @@ public class NotificationCreationService {
     @Transactional
     public void notifyManagersOfSupervisorTask(UUID tenantId, int taskId, String taskDescription,
                                                int supervisorId, String supervisorName) {
-        // Find all managers in the same tenant
-        String managerSql = "SELECT user_id FROM users WHERE tenant_id = ? AND role = 'ROLE_MANAGER'";
-        List<Integer> managerIds = jdbcTemplate.queryForList(managerSql, Integer.class, tenantId);
-
         String title = "New Task Created by Supervisor";
         String message = String.format(
                 "A new task '%s' has been created by supervisor %s. Task ID: %d",
@@ -58,10 +66,8 @@ public class NotificationCreationService {
                 taskId
         );
 
-        // Create notification for each manager
-        for (Integer managerId : managerIds) {
-            createNotification(tenantId, managerId, title, message, taskId);
-        }
+        // Notify all managers in the same tenant with a single INSERT ... SELECT
+        notificationService.publish(notificationRepo.saveForRole(tenantId, "ROLE_MANAGER", title, message, taskId));
     }
 
     /**
@@ -141,9 +147,7 @@ public class NotificationCreationService {
      */
     @Transactional
     public boolean markNotificationAsRead(int notificationId) {
-        String sql = "UPDATE notifications SET is_read = true WHERE notification_id = ?";
-        int updated = jdbcTemplate.update(sql, notificationId);
-        return updated > 0;
+        return notificationService.markNotificationAsRead(notificationId);
     }
 
     /**
@@ -154,8 +158,7 @@ public class NotificationCreationService {
      */
     @Transactional
     public int markAllNotificationsAsRead(int userId) {
-        String sql = "UPDATE notifications SET is_read = true WHERE user_id = ? AND is_read = false";
-        return jdbcTemplate.update(sql, userId);
+        return notificationService.markAllNotificationsAsRead(userId);
     }
 
     /**
@@ -165,8 +168,6 @@ public class NotificationCreationService {
      * @return The count of unread notifications
      */
     public int getUnreadNotificationsCount(int userId) {
-        String sql = "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = false";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, userId);
-        return count != null ? count : 0;
+        return notificationService.getUnreadNotificationsCount(userId);
     }
 }
\ No newline at end of file
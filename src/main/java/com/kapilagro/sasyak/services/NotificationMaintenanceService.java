@@ -0,0 +1,108 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.NotificationPartitionRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Keeps the notifications table bounded: creates monthly partitions ahead of time, deletes
+ * read notifications past their tenant's retention, and drops old partitions left empty.
+ */
+@Service
+public class NotificationMaintenanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationMaintenanceService.class);
+
+    @Autowired
+    private NotificationPartitionRepo partitionRepo;
+
+    @Value("${notifications.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${notifications.retention.read-days:180}")
+    private int readRetentionDays;
+
+    @Value("${notifications.retention.batch-size:5000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitionsOnStartup() {
+        ensurePartitions();
+    }
+
+    /**
+     * Nightly: partitions first so inserts never fall into the default partition, then retention
+     */
+    @Scheduled(cron = "${notifications.maintenance-cron:0 0 3 * * *}", zone = "Asia/Kolkata")
+    public void runMaintenance() {
+        ensurePartitions();
+        purgeReadNotifications();
+        dropEmptyPartitions();
+    }
+
+    void ensurePartitions() {
+        try {
+            if (!partitionRepo.isPartitioned()) {
+                return;
+            }
+            LocalDate month = currentMonth();
+            for (int i = 0; i <= monthsAhead; i++) {
+                partitionRepo.createMonthPartition(month.plusMonths(i));
+            }
+        } catch (Exception e) {
+            log.error("Failed to create notification partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    void purgeReadNotifications() {
+        try {
+            int minDays = partitionRepo.minRetentionDays(readRetentionDays);
+            int total = 0;
+            int deleted;
+            do {
+                // Each batch commits on its own so locks and WAL stay small
+                deleted = partitionRepo.deleteExpiredRead(readRetentionDays, minDays, batchSize);
+                total += deleted;
+            } while (deleted == batchSize);
+            if (total > 0) {
+                log.info("Deleted {} read notifications past retention", total);
+            }
+        } catch (Exception e) {
+            log.error("Notification retention failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Dropping a whole partition is cheaper than vacuuming it; only months before the current one
+    void dropEmptyPartitions() {
+        try {
+            if (!partitionRepo.isPartitioned()) {
+                return;
+            }
+            String current = NotificationPartitionRepo.partitionName(currentMonth());
+            List<String> partitions = partitionRepo.monthPartitions();
+            for (String partition : partitions) {
+                if (partition.compareTo(current) < 0 && partitionRepo.isEmpty(partition)) {
+                    partitionRepo.dropPartition(partition);
+                    log.info("Dropped empty notification partition {}", partition);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to drop empty notification partitions: {}", e.getMessage(), e);
+        }
+    }
+
+    // Partitions are created months ahead, so a JVM/database time zone offset at month end is harmless
+    private LocalDate currentMonth() {
+        return LocalDate.now(ZoneId.systemDefault()).withDayOfMonth(1);
+    }
+}
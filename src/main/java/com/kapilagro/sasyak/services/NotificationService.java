@@ -1,49 +1,66 @@
 package com.kapilagro.sasyak.services;
 
+import com.kapilagro.sasyak.model.Notification;
+import com.kapilagro.sasyak.model.NotificationCursor;
+import com.kapilagro.sasyak.model.NotificationDTO;
+import com.kapilagro.sasyak.model.NotificationListResponse;
+import com.kapilagro.sasyak.model.NotificationPage;
+import com.kapilagro.sasyak.repository.NotificationRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
+import java.util.*;
 
 @Service
 public class NotificationService {
+    // Event names on the notification stream
+    public static final String NOTIFICATION_EVENT = "notification";
+    public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+    // Largest inbox page a client may request
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final JdbcTemplate jdbcTemplate;
+    private final NotificationRepo notificationRepo;
+    private final NotificationStreamRegistry streamRegistry;
+    private final UnreadCountCache unreadCounts;
 
     @Autowired
-    public NotificationService(JdbcTemplate jdbcTemplate) {
+    public NotificationService(JdbcTemplate jdbcTemplate, NotificationRepo notificationRepo,
+                               NotificationStreamRegistry streamRegistry, UnreadCountCache unreadCounts) {
         this.jdbcTemplate = jdbcTemplate;
+        this.notificationRepo = notificationRepo;
+        this.streamRegistry = streamRegistry;
+        this.unreadCounts = unreadCounts;
     }
 
     // Create notification for task assignment
     @Transactional
     public void createTaskAssignmentNotification(UUID tenantId, int userId, int taskId, String title, String message) {
-        String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql, tenantId, userId, title, message, taskId);
+        create(tenantId, userId, taskId, title, message);
     }
 
     // Create notification for task status update
     @Transactional
     public void createTaskStatusNotification(UUID tenantId, int userId, int taskId, String title, String message) {
-        String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql, tenantId, userId, title, message, taskId);
+        create(tenantId, userId, taskId, title, message);
     }
 
     // Create notification for task implementation
     @Transactional
     public void createTaskImplementationNotification(UUID tenantId, int userId, int taskId, String title, String message) {
-        String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql, tenantId, userId, title, message, taskId);
+        create(tenantId, userId, taskId, title, message);
     }
 
     // Create notification for new advice
     @Transactional
     public void createAdviceNotification(UUID tenantId, int userId, int taskId, String title, String message) {
-        String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-        jdbcTemplate.update(sql, tenantId, userId, title, message, taskId);
+        create(tenantId, userId, taskId, title, message);
     }
 
     // Notify managers when a task is created by a supervisor
@@ -52,22 +69,14 @@ public class NotificationService {
                                              String taskDescription, int supervisorId, String supervisorName) {
         System.out.println("==== NOTIFY SUPERVISOR TASK CREATION START ====");
         try {
-            // Find all managers in the same tenant
-            System.out.println("Looking for managers in tenant: " + tenantId);
-            String managerSql = "SELECT user_id FROM users WHERE tenant_id = ? AND role = 'MANAGER'";
-            List<Integer> managerIds = jdbcTemplate.queryForList(managerSql, Integer.class, tenantId);
-            System.out.println("Found " + managerIds.size() + " managers");
-
             String title = "New Task Created by Supervisor";
             String message = "Supervisor " + supervisorName + " has created a new task: " + taskDescription;
 
-            // Create notification for each manager
-            for (Integer managerId : managerIds) {
-                System.out.println("Creating notification for manager ID: " + managerId);
-                String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-                int rowsAffected = jdbcTemplate.update(sql, tenantId, managerId, title, message, taskId);
-                System.out.println("Notification created, rows affected: " + rowsAffected);
-            }
+            // Notify all managers in the same tenant with a single INSERT ... SELECT
+            System.out.println("Notifying managers in tenant: " + tenantId);
+            List<Notification> created = notificationRepo.saveForRole(tenantId, "MANAGER", title, message, taskId);
+            publish(created);
+            System.out.println("Notifications created, rows affected: " + created.size());
         } catch (Exception e) {
             System.out.println("Error in notifySupervisorTaskCreation: " + e.getMessage());
             e.printStackTrace();
@@ -116,9 +125,8 @@ public class NotificationService {
                 String message = supervisorName + " has created a new '" + taskType + "' task. Click here to see task and give advice.";
 
                 System.out.println("Creating notification with message: " + message);
-                String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-                int rowsAffected = jdbcTemplate.update(sql, tenantId, managerId, title, message, taskId);
-                System.out.println("Notification created, rows affected: " + rowsAffected);
+                create(tenantId, managerId, taskId, title, message);
+                System.out.println("Notification created for manager ID: " + managerId);
             } else {
                 System.out.println("No manager found for supervisor ID: " + supervisorId);
                 // Try to find all users with role manager
@@ -140,25 +148,70 @@ public class NotificationService {
         System.out.println("==== NOTIFY SUPERVISOR'S MANAGER END ====");
     }
 
-    // Get unread notifications count for a user
+    // Get unread notifications count for a user (served from memory after the first read)
     public int getUnreadNotificationsCount(int userId) {
-        String sql = "SELECT COUNT(*) FROM notifications WHERE user_id = ? AND is_read = false";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, userId);
-        return count != null ? count : 0; // Handle potential null value
+        return unreadCounts.get(userId);
+    }
+
+    /**
+     * A page of the user's inbox, newest first. A non-null cursor selects keyset paging (an empty
+     * cursor is the first page); otherwise page/size offsets are used for older clients.
+     */
+    public NotificationListResponse getNotifications(int userId, boolean onlyUnread, String cursor,
+                                                     int page, int size, boolean includeTotal) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        NotificationCursor after = cursor == null || cursor.isBlank() ? null : NotificationCursor.decode(cursor);
+        NotificationPage result = notificationRepo.findForUser(userId, onlyUnread, after,
+                cursor == null ? page * size : 0, size, includeTotal);
+
+        List<Notification> rows = result.getNotifications();
+        List<NotificationDTO> notifications = new ArrayList<>(rows.size());
+        for (Notification row : rows) {
+            notifications.add(NotificationDTO.of(row));
+        }
+        Integer total = result.getTotalCount();
+        return NotificationListResponse.builder()
+                .notifications(notifications)
+                .totalCount(total)
+                .currentPage(page)
+                .totalPages(total != null ? (int) Math.ceil((double) total / size) : null)
+                .nextCursor(rows.size() == size ? NotificationCursor.of(rows.get(rows.size() - 1)).encode() : null)
+                .build();
+    }
+
+    public boolean isOwner(int notificationId, int userId) {
+        return notificationRepo.isOwnedBy(notificationId, userId);
     }
 
     // Mark a notification as read
     @Transactional
-    public void markNotificationAsRead(int notificationId) {
-        String sql = "UPDATE notifications SET is_read = true WHERE notification_id = ?";
-        jdbcTemplate.update(sql, notificationId);
+    public boolean markNotificationAsRead(int notificationId) {
+        String sql = "UPDATE notifications SET is_read = true WHERE notification_id = ? AND is_read = false RETURNING user_id";
+        List<Integer> userIds = jdbcTemplate.queryForList(sql, Integer.class, notificationId);
+        userIds.forEach(userId -> afterCommit(() -> {
+            unreadCounts.increment(userId, -1);
+            pushUnreadCount(userId);
+        }));
+        return !userIds.isEmpty();
     }
 
     // Mark all notifications for a user as read
     @Transactional
-    public void markAllNotificationsAsRead(int userId) {
-        String sql = "UPDATE notifications SET is_read = true WHERE user_id = ?";
-        jdbcTemplate.update(sql, userId);
+    public int markAllNotificationsAsRead(int userId) {
+        String sql = "UPDATE notifications SET is_read = true WHERE user_id = ? AND is_read = false";
+        int updated = jdbcTemplate.update(sql, userId);
+        if (updated > 0) {
+            afterCommit(() -> {
+                unreadCounts.reset(userId);
+                pushUnreadCount(userId);
+            });
+        }
+        return updated;
     }
 
     // Check if a user is a supervisor
@@ -177,9 +230,77 @@ public class NotificationService {
     // Batch create notifications for multiple users
     @Transactional
     public void createBatchNotifications(UUID tenantId, List<Integer> userIds, String title, String message, Integer taskId) {
-        for (Integer userId : userIds) {
-            String sql = "INSERT INTO notifications (tenant_id, user_id, title, message, task_id) VALUES (?, ?, ?, ?, ?)";
-            jdbcTemplate.update(sql, tenantId, userId, title, message, taskId);
+        publish(notificationRepo.saveForUsers(tenantId, userIds, title, message, taskId));
+    }
+
+    // Open an event stream for the user; it starts with the current unread count
+    public SseEmitter openStream(int userId) {
+        SseEmitter emitter = streamRegistry.register(userId);
+        streamRegistry.send(userId, UNREAD_COUNT_EVENT, Map.of("count", getUnreadNotificationsCount(userId)));
+        return emitter;
+    }
+
+    /**
+     * Push stored notifications to their recipients' open streams, followed by each
+     * recipient's new unread count. Runs after commit so clients never see rolled-back rows.
+     */
+    public void publish(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            Set<Integer> recipients = new LinkedHashSet<>();
+            for (Notification notification : notifications) {
+                unreadCounts.increment(notification.getUserId(), 1);
+                if (streamRegistry.isConnected(notification.getUserId())) {
+                    streamRegistry.send(notification.getUserId(), NOTIFICATION_EVENT, NotificationDTO.of(notification));
+                    recipients.add(notification.getUserId());
+                }
+            }
+            recipients.forEach(this::pushUnreadCount);
+        });
+    }
+
+    // Push notifications that were merged into existing unread rows; unread counts are unchanged
+    public void publishUpdates(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            for (Notification notification : notifications) {
+                if (streamRegistry.isConnected(notification.getUserId())) {
+                    streamRegistry.send(notification.getUserId(), NOTIFICATION_EVENT, NotificationDTO.of(notification));
+                }
+            }
+        });
+    }
+
+    private void create(UUID tenantId, int userId, int taskId, String title, String message) {
+        publish(notificationRepo.saveAll(List.of(Notification.builder()
+                .tenantId(tenantId)
+                .userId(userId)
+                .title(title)
+                .message(message)
+                .taskId(taskId)
+                .build())));
+    }
+
+    private void pushUnreadCount(int userId) {
+        if (streamRegistry.isConnected(userId)) {
+            streamRegistry.send(userId, UNREAD_COUNT_EVENT, Map.of("count", getUnreadNotificationsCount(userId)));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.kapilagro.sasyak.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Open notification streams per user. Emitters are async-servlet responses, so an idle
+ * connection holds no request thread; writers push to whichever streams the user has open.
+ * Events are queued per stream and written on a virtual thread, so a slow or half-open client
+ * never blocks the caller (a committing transaction, the outbox dispatcher or the heartbeat).
+ */
+@Component
+public class NotificationStreamRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamRegistry.class);
+
+    private final Map<Integer, Deque<Stream>> streams = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${notifications.stream.timeout:30m}")
+    private Duration timeout;
+
+    // Open streams per user; the oldest is closed when another one is opened
+    @Value("${notifications.stream.max-per-user:5}")
+    private int maxPerUser;
+
+    // Events waiting for one stream; a client further behind than this is disconnected
+    @Value("${notifications.stream.send-queue-capacity:64}")
+    private int sendQueueCapacity;
+
+    public SseEmitter register(int userId) {
+        Stream stream = new Stream(userId, newEmitter(), sendQueueCapacity);
+        List<Stream> evicted = new ArrayList<>();
+        streams.compute(userId, (id, userStreams) -> {
+            Deque<Stream> deque = userStreams != null ? userStreams : new ConcurrentLinkedDeque<>();
+            deque.addLast(stream);
+            while (deque.size() > maxPerUser) {
+                evicted.add(deque.pollFirst());
+            }
+            return deque;
+        });
+        // A client that reconnects without closing its old stream is not locked out
+        evicted.forEach(this::close);
+
+        SseEmitter emitter = stream.emitter;
+        emitter.onCompletion(() -> remove(stream));
+        emitter.onTimeout(() -> remove(stream));
+        emitter.onError(e -> remove(stream));
+        return emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    public boolean isConnected(int userId) {
+        return streams.containsKey(userId);
+    }
+
+    public void send(int userId, String eventName, Object data) {
+        Deque<Stream> userStreams = streams.get(userId);
+        if (userStreams == null) {
+            return;
+        }
+        for (Stream stream : userStreams) {
+            stream.enqueue(SseEmitter.event().name(eventName).data(data));
+        }
+    }
+
+    // Comment frames keep proxies from closing idle streams and reveal dead connections
+    @Scheduled(fixedDelayString = "${notifications.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        streams.values().forEach(userStreams -> {
+            for (Stream stream : userStreams) {
+                stream.enqueue(SseEmitter.event().comment("keepalive"));
+            }
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sendExecutor.shutdownNow();
+    }
+
+    private void close(Stream stream) {
+        remove(stream);
+        try {
+            stream.emitter.complete();
+        } catch (IllegalStateException e) {
+            // Already completed
+        }
+    }
+
+    private void remove(Stream stream) {
+        streams.computeIfPresent(stream.userId, (id, userStreams) -> {
+            userStreams.remove(stream);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+        log.debug("Notification stream closed for user {}", stream.userId);
+    }
+
+    /**
+     * One open stream and the events not yet written to it. At most one drain runs per stream,
+     * which keeps events in order.
+     */
+    private final class Stream {
+        private final int userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private Stream(int userId, SseEmitter emitter, int capacity) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (!pending.offer(event)) {
+                // The client is not keeping up; it reloads what it missed when it reconnects
+                log.debug("Notification stream for user {} fell behind and was closed", userId);
+                close(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = pending.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        // Client went away; the container completes the emitter
+                        remove(this);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // Re-check for an event queued between the last poll and clearing the flag
+            } while (!pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.RefreshTokenRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-use refresh tokens. Every refresh revokes the presented token id; revoked ids live in
+ * memory (rebuilt from refresh_token_revocations on startup) so replays are rejected without a
+ * query. The insert is the authority: a token used on another instance still fails its insert.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepo refreshTokenRepo;
+
+    // Revoked token id -> token expiry (epoch millis); entries are dropped once the token expires
+    private final Map<UUID, Long> revoked = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenRepo refreshTokenRepo) {
+        this.refreshTokenRepo = refreshTokenRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<UUID, Long> active = new HashMap<>();
+        refreshTokenRepo.loadActive(active);
+        revoked.putAll(active);
+        log.info("Loaded {} revoked refresh token ids", active.size());
+    }
+
+    // Mark a token as used; returns false when it was already used or revoked
+    public boolean consume(String tokenId, Date expiresAt) {
+        UUID id = parse(tokenId);
+        if (id == null || revoked.containsKey(id)) {
+            return false;
+        }
+        boolean first = refreshTokenRepo.revoke(id, OffsetDateTime.ofInstant(expiresAt.toInstant(), ZoneOffset.UTC));
+        revoked.put(id, expiresAt.getTime());
+        return first;
+    }
+
+    // Logout: revoke without caring whether it was already used
+    public void revoke(String tokenId, Date expiresAt) {
+        UUID id = parse(tokenId);
+        if (id != null && !revoked.containsKey(id)) {
+            refreshTokenRepo.revoke(id, OffsetDateTime.ofInstant(expiresAt.toInstant(), ZoneOffset.UTC));
+            revoked.put(id, expiresAt.getTime());
+        }
+    }
+
+    @Scheduled(cron = "${auth.refresh-tokens.purge-cron:0 15 * * * *}")
+    public void purgeExpired() {
+        long now = Instant.now().toEpochMilli();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        try {
+            int deleted = refreshTokenRepo.deleteExpired();
+            if (deleted > 0) {
+                log.info("Purged {} expired refresh token revocations", deleted);
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge refresh token revocations: {}", e.getMessage(), e);
+        }
+    }
+
+    private static UUID parse(String tokenId) {
+        try {
+            return tokenId != null ? UUID.fromString(tokenId) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.kapilagro.sasyak.services;
 import com.kapilagro.sasyak.model.Task;
 import com.kapilagro.sasyak.model.TaskAdvice;
 import com.kapilagro.sasyak.model.TaskAdviceDTO;
+import com.kapilagro.sasyak.model.TaskEvent;
 import com.kapilagro.sasyak.model.User;
 import com.kapilagro.sasyak.repository.TaskAdviceRepo;
+import com.kapilagro.sasyak.repository.TaskEventRepo;
 import com.kapilagro.sasyak.repository.TaskRepo;
 import com.kapilagro.sasyak.repository.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +14,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -22,17 +26,17 @@ public class TaskAdviceService {
     private final TaskAdviceRepo taskAdviceRepository;
     private final TaskRepo taskRepository;
     private final UserRepo userRepository;
-    private final NotificationService notificationService;
+    private final TaskEventRepo taskEventRepository;
 
     @Autowired
     public TaskAdviceService(TaskAdviceRepo taskAdviceRepository,
                              TaskRepo taskRepository,
                              UserRepo userRepository,
-                             NotificationService notificationService) {
+                             TaskEventRepo taskEventRepository) {
         this.taskAdviceRepository = taskAdviceRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.taskEventRepository = taskEventRepository;
     }
 
     // Existing method
@@ -51,6 +55,15 @@ public class TaskAdviceService {
             throw new IllegalArgumentException("Task not found or does not belong to this tenant");
         }
 
+        return createAdvice(taskOpt.get(), managerId, adviceText);
+    }
+
+    // Create advice on a task that the caller has already loaded and authorized
+    @Transactional
+    public TaskAdvice createAdvice(Task task, int managerId, String adviceText) {
+        UUID tenantId = task.getTenantId();
+        int taskId = task.getTaskId();
+
         // Create the advice
         TaskAdvice advice = TaskAdvice.builder()
                 .tenantId(tenantId)
@@ -62,35 +75,8 @@ public class TaskAdviceService {
         int adviceId = taskAdviceRepository.save(advice);
         advice.setAdviceId(adviceId);
 
-        // Notify the task creator
-        Task task = taskOpt.get();
-
-        // Get manager's name
-        Optional<User> manager = userRepository.getUserById(managerId);
-        String managerName = manager.map(User::getName).orElse("A manager");
-
-
-        Optional<User> user=userRepository.getUserById(task.getCreatedById());
-        if(user.get().getRole().equals("SUPERVISOR")){
-            notificationService.createAdviceNotification(
-                    tenantId,
-                    task.getCreatedById(),
-                    taskId,
-                    "New Advice Received",
-                    managerName + " has provided advice on your task."
-            );
-        }
-
-        // If task is assigned to someone, notify them too (if they're not the creator)
-        if (task.getAssignedToId() != null && task.getAssignedToId() != task.getCreatedById()) {
-            notificationService.createAdviceNotification(
-                    tenantId,
-                    task.getAssignedToId(),
-                    taskId,
-                    "New Advice Received",
-                    managerName + " has provided advice on a task assigned to you."
-            );
-        }
+        // Notifications are resolved and written by TaskEventDispatcher
+        taskEventRepository.append(TaskEvent.of(TaskEvent.ADVICE_ADDED, task, managerId));
 
         return advice;
     }
@@ -121,10 +107,26 @@ public class TaskAdviceService {
                 .build();
     }
 
+    // Convert a list of advice, resolving manager names with one lookup
+    public List<TaskAdviceDTO> convertToDTOs(List<TaskAdvice> advices) {
+        Set<Integer> managerIds = advices.stream()
+                .map(TaskAdvice::getManagerId)
+                .collect(Collectors.toSet());
+        Map<Integer, String> managerNames = userRepository.getUserNamesByIds(managerIds);
+
+        return advices.stream()
+                .map(advice -> TaskAdviceDTO.builder()
+                        .id(advice.getAdviceId())
+                        .taskId(advice.getTaskId())
+                        .managerName(managerNames.getOrDefault(advice.getManagerId(), "Unknown"))
+                        .adviceText(advice.getAdviceText())
+                        .createdAt(advice.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     // Get all advice for a task as DTOs
     public List<TaskAdviceDTO> getAdviceForTaskAsDTO(int taskId) {
-        return taskAdviceRepository.getByTaskId(taskId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(taskAdviceRepository.getByTaskId(taskId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.TaskCounterDrift;
+import com.kapilagro.sasyak.repository.TaskCounterRepo;
+import com.kapilagro.sasyak.repository.TaskRollupRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps task_counters and task_daily_rollups honest: seeds them on first start and
+ * periodically rebuilds them from the tasks table, logging any rows that had drifted.
+ */
+@Service
+public class TaskCounterReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCounterReconciliationService.class);
+
+    @Autowired
+    private TaskCounterRepo taskCounterRepo;
+
+    @Autowired
+    private TaskRollupRepo taskRollupRepo;
+
+    /**
+     * Seed the summary tables when they have just been created
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedIfEmpty() {
+        if (taskCounterRepo.isEmpty()) {
+            log.info("task_counters is empty, building it from tasks");
+            taskCounterRepo.rebuild();
+        }
+        if (taskRollupRepo.isEmpty()) {
+            log.info("task_daily_rollups is empty, building it from tasks");
+            taskRollupRepo.rebuild();
+        }
+    }
+
+    /**
+     * Nightly rebuild; drift here means some write path bypassed TaskRepo
+     */
+    @Scheduled(cron = "${tasks.counters.reconcile-cron:0 30 2 * * *}", zone = "Asia/Kolkata")
+    public void reconcile() {
+        int rollupDrift = taskRollupRepo.rebuild();
+        if (rollupDrift > 0) {
+            log.warn("task_daily_rollups drift: {} rows differed from tasks and were rebuilt", rollupDrift);
+        }
+
+        List<TaskCounterDrift> drift = taskCounterRepo.rebuild();
+        if (drift.isEmpty()) {
+            log.debug("task_counters reconciled, no drift");
+            return;
+        }
+        for (TaskCounterDrift row : drift) {
+            log.warn("task_counters drift: tenant={}, status={}, type={}, counted={}, actual={}",
+                    row.getTenantId(), row.getStatus(), row.getTaskType(), row.getCounted(), row.getActual());
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.Notification;
+import com.kapilagro.sasyak.model.TaskEvent;
+import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.repository.NotificationRepo;
+import com.kapilagro.sasyak.repository.TaskEventRepo;
+import com.kapilagro.sasyak.repository.UserRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Drains the task_events outbox: each batch is claimed, turned into notifications with
+ * one user lookup and one multi-row insert, and deleted in a single transaction.
+ * Repeated updates to a task for the same recipient are coalesced into one notification
+ * unless notifications.coalesce.window-seconds is 0.
+ */
+@Service
+public class TaskEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventDispatcher.class);
+
+    // Event types whose notifications may be coalesced; creation and assignment always stand alone
+    private static final Set<String> UPDATE_EVENTS = Set.of(TaskEvent.STATUS_CHANGED, TaskEvent.IMPLEMENTED, TaskEvent.ADVICE_ADDED);
+
+    private final TaskEventRepo taskEventRepo;
+    private final NotificationRepo notificationRepo;
+    private final UserRepo userRepo;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notifications.coalesce.window-seconds:300}")
+    private int coalesceWindowSeconds;
+
+    @Value("${notifications.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notifications.outbox.retry-backoff-ms:5000}")
+    private long retryBackoffMs;
+
+    @Autowired
+    public TaskEventDispatcher(TaskEventRepo taskEventRepo, NotificationRepo notificationRepo, UserRepo userRepo,
+                               NotificationService notificationService, PlatformTransactionManager transactionManager) {
+        this.taskEventRepo = taskEventRepo;
+        this.notificationRepo = notificationRepo;
+        this.userRepo = userRepo;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        try {
+            Integer claimed;
+            do {
+                try {
+                    claimed = transactionTemplate.execute(status -> dispatchBatch());
+                } catch (Exception e) {
+                    // The batch rolled back; isolate the failing events so the rest still go out.
+                    // The poll ends here so a transient failure is not retried in a tight loop.
+                    log.warn("Task event batch failed, retrying events one at a time: {}", e.getMessage());
+                    dispatchEachEvent();
+                    return;
+                }
+            } while (claimed != null && claimed == batchSize);
+        } catch (Exception e) {
+            // Retried on the next poll
+            log.error("Task event dispatch failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Returns the number of events claimed
+    int dispatchBatch() {
+        List<TaskEvent> events = taskEventRepo.claimBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        dispatchEvents(events);
+        return events.size();
+    }
+
+    // Dispatch the pending batch one event per transaction. A failing event has its attempts
+    // counted and waits out a doubling backoff before it is claimed again; after maxAttempts it
+    // is moved to task_events_dead, so it cannot block the outbox.
+    void dispatchEachEvent() {
+        List<TaskEvent> events = transactionTemplate.execute(status -> taskEventRepo.claimBatch(batchSize));
+        for (TaskEvent event : events) {
+            long eventId = event.getEventId();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        taskEventRepo.claimById(eventId).ifPresent(claimed -> dispatchEvents(List.of(claimed))));
+            } catch (Exception e) {
+                Boolean dead = transactionTemplate.execute(status -> taskEventRepo.recordFailure(eventId, maxAttempts, retryBackoffMs, e.toString()));
+                if (Boolean.TRUE.equals(dead)) {
+                    log.error("Task event {} failed {} times and was moved to task_events_dead: {}", eventId, maxAttempts, e.getMessage(), e);
+                } else {
+                    log.warn("Task event {} failed: {}", eventId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void dispatchEvents(List<TaskEvent> events) {
+        Set<Integer> userIds = new HashSet<>();
+        for (TaskEvent event : events) {
+            userIds.add(event.getActorId());
+            userIds.add(event.getCreatedById());
+            if (event.getAssignedToId() != null) {
+                userIds.add(event.getAssignedToId());
+            }
+        }
+        Map<Integer, User> users = new HashMap<>(userRepo.getUsersByIds(userIds));
+
+        List<Notification> recipients = new ArrayList<>();
+        Set<Notification> updates = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Long> eventIds = new ArrayList<>(events.size());
+        for (TaskEvent event : events) {
+            List<Notification> eventNotifications = toNotifications(event, users);
+            recipients.addAll(eventNotifications);
+            if (UPDATE_EVENTS.contains(event.getEventType())) {
+                updates.addAll(eventNotifications);
+            }
+            eventIds.add(event.getEventId());
+        }
+
+        // Managers are only known once their reports are loaded
+        Set<Integer> unloaded = new HashSet<>();
+        recipients.forEach(n -> {
+            if (!userIds.contains(n.getUserId())) {
+                unloaded.add(n.getUserId());
+            }
+        });
+        if (!unloaded.isEmpty()) {
+            users.putAll(userRepo.getUsersByIds(unloaded));
+        }
+
+        // Recipients deleted since the event was written are skipped
+        List<Notification> notifications = recipients.stream()
+                .filter(n -> users.containsKey(n.getUserId()))
+                .toList();
+        if (notifications.size() < recipients.size()) {
+            log.debug("Skipped {} notifications for users that no longer exist", recipients.size() - notifications.size());
+        }
+
+        List<Notification> pending = notifications;
+        List<Notification> merged = List.of();
+        if (coalesceWindowSeconds > 0) {
+            pending = coalesce(notifications, updates);
+            // Fold updates into the recipient's recent unread update for the task; only the rest are inserted
+            merged = notificationRepo.mergeIntoRecent(pending.stream().filter(updates::contains).toList(),
+                    coalesceWindowSeconds);
+            Set<List<Integer>> mergedKeys = new HashSet<>();
+            merged.forEach(n -> mergedKeys.add(List.of(n.getUserId(), n.getTaskId())));
+            pending = pending.stream()
+                    .filter(n -> !updates.contains(n) || !mergedKeys.contains(List.of(n.getUserId(), n.getTaskId())))
+                    .toList();
+        }
+
+        // Pushed to open streams once this transaction commits
+        notificationService.publish(notificationRepo.saveAll(pending));
+        notificationService.publishUpdates(merged);
+        taskEventRepo.deleteByIds(eventIds);
+        log.debug("Dispatched {} task events as {} new and {} merged notifications",
+                events.size(), pending.size(), merged.size());
+    }
+
+    // Collapse update notifications for the same recipient and task into one, keeping the latest
+    // message; notifications not in updates are passed through in place
+    List<Notification> coalesce(List<Notification> notifications, Set<Notification> updates) {
+        Map<Object, Notification> byKey = new LinkedHashMap<>();
+        for (Notification notification : notifications) {
+            Object key = updates.contains(notification) && notification.getTaskId() != null
+                    ? List.of(notification.getUserId(), notification.getTaskId())
+                    : new Object();
+            byKey.merge(key, notification, (earlier, later) -> {
+                int changes = earlier.getChangeCount() + later.getChangeCount();
+                later.setChangeCount(changes);
+                later.setTitle(updatedTitle(changes));
+                return later;
+            });
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    // Kept in step with the title set by NotificationRepo.mergeIntoRecent
+    static String updatedTitle(int changes) {
+        return "Task updated (" + changes + " changes)";
+    }
+
+    // Recipient rules for each event type
+    List<Notification> toNotifications(TaskEvent event, Map<Integer, User> users) {
+        List<Notification> out = new ArrayList<>();
+        Optional<User> actor = Optional.ofNullable(users.get(event.getActorId()));
+        Optional<User> creator = Optional.ofNullable(users.get(event.getCreatedById()));
+        Integer assignedToId = event.getAssignedToId();
+
+        switch (event.getEventType()) {
+            case TaskEvent.TASK_CREATED -> {
+                String creatorName = creator.map(User::getName).orElse("A user");
+                String creatorRole = creator.map(User::getRole).orElse("");
+                if ("supervisor".equalsIgnoreCase(creatorRole)) {
+                    // For supervisor-created tasks, notify only their direct manager
+                    Integer managerId = creator.get().getManagerId();
+                    if (managerId != null) {
+                        out.add(notification(event, managerId, "Task Created by Your Team Member",
+                                creatorName + " has created a new '" + event.getTaskType() + "' task. Click here to see task and give advice."));
+                    }
+                } else if ("MANAGER".equalsIgnoreCase(creatorRole) && assignedToId != null) {
+                    // For manager-created tasks, notify the assigned supervisor
+                    out.add(notification(event, assignedToId, "New Task Assigned",
+                            creatorName + " has assigned you a new task."));
+                }
+            }
+            case TaskEvent.STATUS_CHANGED -> {
+                String updaterName = actor.map(User::getName).orElse("A user");
+                if (creator.isPresent() && event.getCreatedById() != event.getActorId()) {
+                    out.add(notification(event, event.getCreatedById(), "Task Status Updated",
+                            updaterName + " has updated the status of your task to " + event.getStatus()));
+                }
+                if (assignedToId != null && assignedToId != event.getActorId()) {
+                    out.add(notification(event, assignedToId, "Task Status Updated",
+                            updaterName + " has updated the status of a task assigned to you to " + event.getStatus()));
+                }
+            }
+            case TaskEvent.IMPLEMENTED -> {
+                // Managers hear about their own tasks; otherwise the creator's manager is told
+                Integer recipientId = creator.map(c -> "manager".equalsIgnoreCase(c.getRole()) ? Integer.valueOf(c.getUserId()) : c.getManagerId())
+                        .orElse(null);
+                if (recipientId != null) {
+                    String implementerName = actor.map(User::getName).orElse("A user");
+                    out.add(notification(event, recipientId, "Task Implemented",
+                            implementerName + " has implemented the task."));
+                }
+            }
+            case TaskEvent.ASSIGNED -> {
+                String assignerName = actor.map(User::getName).orElse("A user");
+                if (assignedToId != null) {
+                    out.add(notification(event, assignedToId, "Task Assigned to You",
+                            assignerName + " has assigned a task to you."));
+                }
+            }
+            case TaskEvent.ADVICE_ADDED -> {
+                String managerName = actor.map(User::getName).orElse("A manager");
+                if (creator.isPresent() && "SUPERVISOR".equals(creator.get().getRole())) {
+                    out.add(notification(event, event.getCreatedById(), "New Advice Received",
+                            managerName + " has provided advice on your task."));
+                }
+                // If task is assigned to someone, notify them too (if they're not the creator)
+                if (assignedToId != null && assignedToId != event.getCreatedById()) {
+                    out.add(notification(event, assignedToId, "New Advice Received",
+                            managerName + " has provided advice on a task assigned to you."));
+                }
+            }
+            default -> log.warn("Skipping task event {} with unknown type {}", event.getEventId(), event.getEventType());
+        }
+        return out;
+    }
+
+    private Notification notification(TaskEvent event, int userId, String title, String message) {
+        return Notification.builder()
+                .tenantId(event.getTenantId())
+                .userId(userId)
+                .title(title)
+                .message(message)
+                .taskId(event.getTaskId())
+                .build();
+    }
+}
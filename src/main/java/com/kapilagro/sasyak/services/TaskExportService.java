@@ -0,0 +1,99 @@
+package com.kapilagro.sasyak.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kapilagro.sasyak.model.TaskDTO;
+import com.kapilagro.sasyak.repository.TaskRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Writes a tenant's tasks as CSV or NDJSON straight from a database cursor,
+ * one row at a time, so memory use does not depend on how many tasks are exported.
+ */
+@Service
+public class TaskExportService {
+
+    public static final String CSV = "csv";
+    public static final String NDJSON = "ndjson";
+
+    private static final String CSV_HEADER = "id,task_type,status,description,created_by,assigned_to," +
+            "created_at,updated_at,details_json,images_json,implementation_json";
+
+    private final TaskRepo taskRepo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Autowired
+    public TaskExportService(TaskRepo taskRepo, ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.taskRepo = taskRepo;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return CSV.equals(format) || NDJSON.equals(format);
+    }
+
+    // The cursor only streams inside a transaction; without one the driver buffers the whole result
+    public void export(UUID tenantId, LocalDate from, LocalDate to, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean csv = CSV.equals(format);
+        if (csv) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                    taskRepo.exportTasks(tenantId, from, to, task -> {
+                        try {
+                            writer.write(csv ? toCsvLine(task) : toJsonLine(task));
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toJsonLine(TaskDTO task) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(task);
+    }
+
+    private String toCsvLine(TaskDTO task) {
+        return String.join(",",
+                String.valueOf(task.getId()),
+                csv(task.getTaskType()),
+                csv(task.getStatus()),
+                csv(task.getDescription()),
+                csv(task.getCreatedBy()),
+                csv(task.getAssignedTo()),
+                csv(task.getCreatedAt() != null ? task.getCreatedAt().toString() : null),
+                csv(task.getUpdatedAt() != null ? task.getUpdatedAt().toString() : null),
+                csv(task.getDetailsJson()),
+                csv(task.getImagesJson()),
+                csv(task.getImplementationJson()));
+    }
+
+    // RFC 4180 quoting: wrap in quotes when needed and double embedded quotes
+    static String csv(String value) {
+        String text = Objects.toString(value, "");
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
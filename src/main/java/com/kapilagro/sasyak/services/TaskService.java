@@ -1,8 +1,11 @@
 package com.kapilagro.sasyak.services;
 
 import com.kapilagro.sasyak.model.Task;
+import com.kapilagro.sasyak.model.TaskCursor;
 import com.kapilagro.sasyak.model.TaskDTO;
+import com.kapilagro.sasyak.model.TaskEvent;
 import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.repository.TaskEventRepo;
 import com.kapilagro.sasyak.repository.TaskRepo;
 import com.kapilagro.sasyak.repository.UserRepo;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,13 +22,13 @@ public class TaskService {
 
     private final TaskRepo taskRepository;
     private final UserRepo userRepository;
-    private final NotificationService notificationService;
+    private final TaskEventRepo taskEventRepository;
 
     @Autowired
-    public TaskService(TaskRepo taskRepository, UserRepo userRepository, NotificationService notificationService) {
+    public TaskService(TaskRepo taskRepository, UserRepo userRepository, TaskEventRepo taskEventRepository) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
-        this.notificationService = notificationService;
+        this.taskEventRepository = taskEventRepository;
     }
 
     // Count tasks by tenant
@@ -77,58 +81,8 @@ public class TaskService {
             task.setTaskId(taskId);
             System.out.println("Task saved with ID: " + taskId);
 
-            // Get creator info for notifications
-            System.out.println("Fetching creator info for user ID: " + createdById);
-            Optional<User> creator = userRepository.getUserById(createdById);
-            System.out.println("Creator present: " + creator.isPresent());
-
-            String creatorName = creator.map(User::getName).orElse("A user");
-            String creatorRole = creator.map(User::getRole).orElse("");
-
-            System.out.println("Creator Name: " + creatorName);
-            System.out.println("Creator Role: " + creatorRole);
-
-            // Check if task creator is a supervisor or manager
-            boolean isSupervisor = creator.isPresent() && "supervisor".equalsIgnoreCase(creator.get().getRole());
-            boolean isManager = creator.isPresent() && "MANAGER".equalsIgnoreCase(creator.get().getRole());
-
-            System.out.println("Is Supervisor: " + isSupervisor);
-            System.out.println("Is Manager: " + isManager);
-
-            if (isSupervisor) {
-                // For supervisor-created tasks, notify only their direct manager
-                System.out.println("User is a supervisor, notifying their manager");
-                try {
-                    notificationService.notifySupervisorManagerOfTaskCreation(
-                            tenantId,
-                            taskId,
-                            taskType,
-                            description,
-                            createdById,
-                            creatorName
-                    );
-                } catch (Exception e) {
-                    System.out.println("Error in notifySupervisorManagerOfTaskCreation: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            } else if (isManager && assignedToId != null) {
-                // For manager-created tasks, notify the assigned supervisor
-                System.out.println("User is a manager, notifying assigned supervisor ID: " + assignedToId);
-                try {
-                    notificationService.createTaskAssignmentNotification(
-                            tenantId,
-                            assignedToId,
-                            taskId,
-                            "New Task Assigned",
-                            creatorName + " has assigned you a new task."
-                    );
-                } catch (Exception e) {
-                    System.out.println("Error in createTaskAssignmentNotification: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            } else {
-                System.out.println("No specific notification required for this role or assignment");
-            }
+            // Notifications are resolved and written by TaskEventDispatcher
+            taskEventRepository.append(TaskEvent.of(TaskEvent.TASK_CREATED, task, createdById));
 
         } catch (Exception e) {
             System.out.println("Error in task creation: " + e.getMessage());
@@ -144,40 +98,13 @@ public class TaskService {
         return taskRepository.getById(taskId);
     }
 
-    public boolean userHasAccessToTask(int userId, int taskId, UUID tenantId) {
-        Optional<Task> taskOpt = taskRepository.getById(taskId);
-        if (taskOpt.isEmpty() || !taskOpt.get().getTenantId().equals(tenantId)) {
-            return false;
-        }
-
-        Task task = taskOpt.get();
-
-        // User created the task
-        if (task.getCreatedById() == userId) {
-            return true;
-        }
-
-        // User is assigned to the task
-        if (task.getAssignedToId() != null && task.getAssignedToId() == userId) {
-            return true;
-        }
-
-        // Check if user is a manager for the task creator or assignee
-        Optional<User> creator = userRepository.getUserById(task.getCreatedById());
-        if (creator.isPresent() && creator.get().getManagerId() != null && creator.get().getManagerId() == userId) {
-            return true;
-        }
-
-        if (task.getAssignedToId() != null) {
-            Optional<User> assignee = userRepository.getUserById(task.getAssignedToId());
-            if (assignee.isPresent() && assignee.get().getManagerId() != null && assignee.get().getManagerId() == userId) {
-                return true;
-            }
-        }
+    // Load a task in the same query that checks the user's access to it
+    public Optional<Task> getTaskForUser(int taskId, int userId, UUID tenantId) {
+        return taskRepository.getByIdForUser(taskId, userId, tenantId);
+    }
 
-        // Check if user is an ADMIN
-        Optional<User> user = userRepository.getUserById(userId);
-        return user.filter(u -> "ADMIN".equalsIgnoreCase(u.getRole())).isPresent();
+    public boolean userHasAccessToTask(int userId, int taskId, UUID tenantId) {
+        return getTaskForUser(taskId, userId, tenantId).isPresent();
     }
 
     public List<Task> getTasksCreatedByUser(UUID tenantId, int userId, int page, int size) {
@@ -196,49 +123,61 @@ public class TaskService {
         return taskRepository.getByTenantId(tenantId, page, size);
     }
 
+    // Cursor-paged variants of the list methods above
+    public List<Task> getTasksCreatedByUser(UUID tenantId, int userId, TaskCursor after, int size) {
+        return taskRepository.getByCreatedBy(tenantId, userId, after, size);
+    }
+
+    public List<Task> getTasksAssignedToUser(UUID tenantId, int userId, TaskCursor after, int size) {
+        return taskRepository.getByAssignedTo(tenantId, userId, after, size);
+    }
+
+    public List<Task> getTasksByStatus(UUID tenantId, String status, int createdById, TaskCursor after, int size) {
+        return taskRepository.getByStatus(tenantId, status, createdById, after, size);
+    }
+
+    public List<Task> getAllTasks(UUID tenantId, TaskCursor after, int size) {
+        return taskRepository.getByTenantId(tenantId, after, size);
+    }
+
+    public List<Task> getTasksByType(UUID tenantId, String taskType, int createdById, TaskCursor after, int size) {
+        return taskRepository.getByTaskType(tenantId, taskType, createdById, after, size);
+    }
+
+    public List<Task> getTasksByManager(UUID tenantId, int managerId, TaskCursor after, int size) {
+        return taskRepository.getTasksByManager(tenantId, managerId, after, size);
+    }
+
+    // Structured filter over details_json; keys are top-level detail fields, values compared as strings
+    public List<Task> searchTasksByDetails(UUID tenantId, Map<String, String> details, TaskCursor after, int size) {
+        if (details.isEmpty()) {
+            throw new IllegalArgumentException("At least one details.* filter is required");
+        }
+        return taskRepository.searchByDetails(tenantId, details, after, size);
+    }
+
+    // Ranked full-text search; details, if any, narrow the matches further
+    public List<Task> searchTasksByText(UUID tenantId, String query, Map<String, String> details, int page, int size) {
+        return taskRepository.searchByText(tenantId, query.trim(), details, page, size);
+    }
+
     @Transactional
     public boolean updateTaskStatus(int taskId, String status, int userId) {
         Optional<Task> taskOpt = taskRepository.getById(taskId);
-        if (taskOpt.isEmpty()) {
-            return false;
-        }
+        return taskOpt.isPresent() && updateTaskStatus(taskOpt.get(), status, userId);
+    }
 
-        Task task = taskOpt.get();
+    // Update an already loaded task; the task is updated in place on success
+    @Transactional
+    public boolean updateTaskStatus(Task task, String status, int userId) {
+        int taskId = task.getTaskId();
         boolean updated = taskRepository.updateStatus(taskId, status);
 
         if (updated) {
-            // Get the user who created the task for notification
-            Optional<User> creator = userRepository.getUserById(task.getCreatedById());
-
-            // Notify the task creator if they're not the one updating the status
-            if (creator.isPresent() && creator.get().getUserId() != userId) {
-                // Get updater's name
-                Optional<User> updater = userRepository.getUserById(userId);
-                String updaterName = updater.map(User::getName).orElse("A user");
-
-                notificationService.createTaskStatusNotification(
-                        task.getTenantId(),
-                        task.getCreatedById(),
-                        taskId,
-                        "Task Status Updated",
-                        updaterName + " has updated the status of your task to " + status
-                );
-            }
+            task.setStatus(status);
+            task.setUpdatedAt(OffsetDateTime.now());
 
-            // If task is assigned to someone, notify them too (if they didn't update it)
-            if (task.getAssignedToId() != null && task.getAssignedToId() != userId) {
-                // Get updater's name
-                Optional<User> updater = userRepository.getUserById(userId);
-                String updaterName = updater.map(User::getName).orElse("A user");
-
-                notificationService.createTaskStatusNotification(
-                        task.getTenantId(),
-                        task.getAssignedToId(),
-                        taskId,
-                        "Task Status Updated",
-                        updaterName + " has updated the status of a task assigned to you to " + status
-                );
-            }
+            taskEventRepository.append(TaskEvent.of(TaskEvent.STATUS_CHANGED, task, userId));
         }
 
         return updated;
@@ -247,50 +186,21 @@ public class TaskService {
     @Transactional
     public boolean updateTaskImplementation(int taskId, String implementationJson, int userId) {
         Optional<Task> taskOpt = taskRepository.getById(taskId);
-        if (taskOpt.isEmpty()) {
-            return false;
-        }
+        return taskOpt.isPresent() && updateTaskImplementation(taskOpt.get(), implementationJson, userId);
+    }
 
-        Task task = taskOpt.get();
+    // Update an already loaded task; the task is updated in place on success
+    @Transactional
+    public boolean updateTaskImplementation(Task task, String implementationJson, int userId) {
+        int taskId = task.getTaskId();
         boolean updated = taskRepository.updateImplementation(taskId, implementationJson);
 
         if (updated) {
-            // Get the user who created the task for notification
-            Optional<User> creator = userRepository.getUserById(task.getCreatedById());
-
-            // Notify the task creator if they're not the one updating
-            int toSendManagerId;
-            if(creator.isPresent()&& creator.get().getRole().equalsIgnoreCase("manager")){
-                toSendManagerId=creator.get().getUserId();
-            }else{
-                toSendManagerId=creator.get().getManagerId();
-            }
-                // Get implementer's name
-            Optional<User> implementer = userRepository.getUserById(userId);
-            String implementerName = implementer.map(User::getName).orElse("A user");
-            notificationService.createTaskImplementationNotification(
-                        task.getTenantId(),
-                        toSendManagerId,
-                        taskId,
-                        "Task Implemented",
-                        implementerName + " has implemented the task."
-            );
-
-
-//            // If there's a manager for the implementer, notify them too
-//            Optional<User> implementer = userRepository.getUserById(userId);
-//            if (implementer.isPresent() && implementer.get().getManagerId() != null) {
-//                // Get implementer's name
-//                String implementerName = implementer.map(User::getName).orElse("A user");
-//
-//                notificationService.createTaskImplementationNotification(
-//                        task.getTenantId(),
-//                        implementer.get().getManagerId(),
-//                        taskId,
-//                        "Task Implemented by Team Member",
-//                        implementerName + " has implemented a task."
-//                );
-//            }
+            task.setImplementationJson(implementationJson);
+            task.setStatus("implemented");
+            task.setUpdatedAt(OffsetDateTime.now());
+
+            taskEventRepository.append(TaskEvent.of(TaskEvent.IMPLEMENTED, task, userId));
         }
 
         return updated;
@@ -299,47 +209,61 @@ public class TaskService {
     @Transactional
     public boolean assignTask(int taskId, int assignedToId, int assignerId) {
         Optional<Task> taskOpt = taskRepository.getById(taskId);
-        if (taskOpt.isEmpty()) {
-            return false;
-        }
+        return taskOpt.isPresent() && assignTask(taskOpt.get(), assignedToId, assignerId);
+    }
+
+    // Assign an already loaded task; the task is updated in place on success
+    @Transactional
+    public boolean assignTask(Task task, int assignedToId, int assignerId) {
+        int taskId = task.getTaskId();
 
         // Validate if assignedToId exists
         Optional<User> assignedUser = userRepository.getUserById(assignedToId);
-        if (assignedUser.isEmpty() || !assignedUser.get().getTenantId().equals(taskOpt.get().getTenantId())) {
+        if (assignedUser.isEmpty() || !assignedUser.get().getTenantId().equals(task.getTenantId())) {
             throw new IllegalArgumentException("Assigned user not found or does not belong to this tenant");
         }
 
         boolean updated = taskRepository.assignTask(taskId, assignedToId);
 
         if (updated) {
-            // Get assigner's name
-            Optional<User> assigner = userRepository.getUserById(assignerId);
-            String assignerName = assigner.map(User::getName).orElse("A user");
-
-            notificationService.createTaskAssignmentNotification(
-                    taskOpt.get().getTenantId(),
-                    assignedToId,
-                    taskId,
-                    "Task Assigned to You",
-                    assignerName + " has assigned a task to you."
-            );
+            task.setAssignedToId(assignedToId);
+            task.setUpdatedAt(OffsetDateTime.now());
+
+            taskEventRepository.append(TaskEvent.of(TaskEvent.ASSIGNED, task, assignerId));
         }
 
         return updated;
     }
 
     public TaskDTO convertToDTO(Task task) {
+        return convertToDTOs(List.of(task)).get(0);
+    }
+
+    // Convert a page of tasks, resolving creator and assignee names with one lookup
+    public List<TaskDTO> convertToDTOs(List<Task> tasks) {
+        Set<Integer> userIds = new HashSet<>();
+        for (Task task : tasks) {
+            userIds.add(task.getCreatedById());
+            if (task.getAssignedToId() != null) {
+                userIds.add(task.getAssignedToId());
+            }
+        }
+
+        Map<Integer, String> userNames = userRepository.getUserNamesByIds(userIds);
+
+        return tasks.stream()
+                .map(task -> toDTO(task, userNames))
+                .collect(Collectors.toList());
+    }
+
+    private TaskDTO toDTO(Task task, Map<Integer, String> userNames) {
         // Get creator name
-        String createdByName = userRepository.getUserById(task.getCreatedById())
-                .map(User::getName)
-                .orElse("Unknown");
+        String createdByName = userNames.getOrDefault(task.getCreatedById(), "Unknown");
 
         // Get assignee name if present
         String assignedToName = null;
         if (task.getAssignedToId() != null) {
-            assignedToName = userRepository.getUserById(task.getAssignedToId())
-                    .map(User::getName)
-                    .orElse("Unknown");
+            assignedToName = userNames.getOrDefault(task.getAssignedToId(), "Unknown");
         }
 
         return TaskDTO.builder()
@@ -29,6 +29,12 @@ public class TenantService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private AuthEpochService authEpochService;
+
     @Autowired
     private GeneratePasswordUtility generateRandomPassword;
 
@@ -86,7 +92,10 @@ public class TenantService {
      */
     @Transactional
     public boolean updateTenantStatus(int tenantId, boolean active) {
-        return tenantRepo.updateTenantStatus(tenantId, active);
+        boolean updated = tenantRepo.updateTenantStatus(tenantId, active);
+        userPrincipalCache.evictAll();
+        authEpochService.bumpTenant(tenantId);
+        return updated;
     }
 
     /**
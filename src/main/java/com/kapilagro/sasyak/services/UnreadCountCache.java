@@ -0,0 +1,79 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.NotificationRepo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unread notification counts per user. A user's count is seeded from the database on first
+ * read and then kept in step by NotificationService after each commit. Counts can drift when
+ * a write lands between a seed query and its result being stored, or comes from another
+ * instance, so a periodic reconcile overwrites them with the database values.
+ */
+@Component
+public class UnreadCountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadCountCache.class);
+
+    private final NotificationRepo notificationRepo;
+    private final Map<Integer, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UnreadCountCache(NotificationRepo notificationRepo) {
+        this.notificationRepo = notificationRepo;
+    }
+
+    public int get(int userId) {
+        AtomicInteger count = counts.get(userId);
+        if (count == null) {
+            // Seed outside the map lock so a slow query never blocks other users' updates
+            AtomicInteger seeded = new AtomicInteger(notificationRepo.countUnread(userId));
+            count = counts.putIfAbsent(userId, seeded);
+            if (count == null) {
+                count = seeded;
+            }
+        }
+        return count.get();
+    }
+
+    // Users not cached yet are left alone; their first read seeds the right value
+    public void increment(int userId, int delta) {
+        AtomicInteger count = counts.get(userId);
+        if (count != null) {
+            count.updateAndGet(value -> Math.max(0, value + delta));
+        }
+    }
+
+    public void reset(int userId) {
+        AtomicInteger count = counts.get(userId);
+        if (count != null) {
+            count.set(0);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.unread-count.reconcile-ms:300000}")
+    public void reconcile() {
+        try {
+            Map<Integer, Integer> actual = notificationRepo.countUnreadByUser();
+            int[] drifted = {0};
+            counts.forEach((userId, count) -> {
+                int value = actual.getOrDefault(userId, 0);
+                if (count.getAndSet(value) != value) {
+                    drifted[0]++;
+                }
+            });
+            if (drifted[0] > 0) {
+                log.info("Reconciled unread counts, {} users had drifted", drifted[0]);
+            }
+        } catch (Exception e) {
+            log.error("Failed to reconcile unread counts: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.kapilagro.sasyak.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.kapilagro.sasyak.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of users by email for request authentication, so an authenticated
+ * request does not have to read the users table. Writers evict through this class;
+ * the TTL bounds staleness for changes made elsewhere.
+ * Hit/miss counts are published as the "cache.*" metrics with cache=userPrincipals.
+ */
+@Service
+public class UserPrincipalCache {
+
+    private final Cache<String, User> usersByEmail;
+
+    public UserPrincipalCache(MeterRegistry meterRegistry,
+                              @Value("${security.principal-cache.ttl:60s}") Duration ttl,
+                              @Value("${security.principal-cache.max-size:10000}") long maxSize) {
+        this.usersByEmail = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, "userPrincipals");
+    }
+
+    // Returns a copy, so callers may modify it without touching the cached entry.
+    // A null from the loader (unknown email) is not cached.
+    public User get(String email, Function<String, User> loader) {
+        User user = usersByEmail.get(email, loader);
+        return user != null ? copyOf(user) : null;
+    }
+
+    // Drop a user under whatever email it is cached with; used after updates and deletes
+    public void evictUser(int userId) {
+        afterCommit(() -> usersByEmail.asMap().values().removeIf(user -> user.getUserId() == userId));
+    }
+
+    // Tenant-wide changes (activation) are rare; drop everything
+    public void evictAll() {
+        afterCommit(usersByEmail::invalidateAll);
+    }
+
+    // Evicting before commit would let a concurrent request re-cache the old row
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .userId(user.getUserId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .role(user.getRole())
+                .password(user.getPassword())
+                .profile(user.getProfile())
+                .location(user.getLocation())
+                .tenantId(user.getTenantId())
+                .managerId(user.getManagerId())
+                .build();
+    }
+}
@@ -20,11 +20,22 @@ public class UserService {
     @Autowired
     UserRepo userRepo;
 
+    @Autowired
+    private UserPrincipalCache userPrincipalCache;
+
+    @Autowired
+    private AuthEpochService authEpochService;
+
     private final PasswordEncoder passwordEncoder;
 
+    // Checked when the email is unknown so the response takes as long as for a real account;
+    // hashed once with the configured cost
+    private final String dummyHash;
+
     // Constructor injection instead of field injection
     public UserService(PasswordEncoder passwordEncoder) {
         this.passwordEncoder = passwordEncoder;
+        this.dummyHash = passwordEncoder.encode(UUID.randomUUID().toString());
     }
 
     public User getUserByUserEmail(String email) {
@@ -82,6 +93,40 @@ public class UserService {
         }
     }
 
+    /**
+     * Verify credentials with one user lookup and one hash check. Returns the principal to issue
+     * tokens for, or null when the email is unknown or the password does not match. Hashes made
+     * with an older cost are upgraded in place so the cost can be raised without password resets.
+     */
+    public MyUserPrincipal authenticate(String email, String rawPassword) {
+        if (rawPassword == null) {
+            return null;
+        }
+        User user = userRepo.getUserByEmail(email);
+        if (user == null || user.getPassword() == null) {
+            // Same hash work (and hashing-pool back-pressure) as a real check, so timing does not reveal the email
+            passwordEncoder.matches(rawPassword, dummyHash);
+            return null;
+        }
+        String storedHash = user.getPassword();
+        if (!passwordEncoder.matches(rawPassword, storedHash)) {
+            return null;
+        }
+        if (passwordEncoder.upgradeEncoding(storedHash)) {
+            try {
+                String upgraded = passwordEncoder.encode(rawPassword);
+                if (userRepo.replacePasswordHash(user.getUserId(), storedHash, upgraded)) {
+                    user.setPassword(upgraded);
+                    userPrincipalCache.evictUser(user.getUserId());
+                }
+            } catch (Exception e) {
+                // The old hash still works; the upgrade is retried on the next login
+                LoggerFactory.getLogger(getClass()).warn("Failed to upgrade password hash for user {}: {}", user.getUserId(), e.getMessage());
+            }
+        }
+        return new MyUserPrincipal(user);
+    }
+
     public Optional<User> getUserById(int id) {
         return userRepo.getUserById(id);
     }
@@ -150,7 +195,10 @@ public class UserService {
     // Delete a user by ID
     @Transactional
     public boolean deleteUser(int userId) {
-        return userRepo.deleteById(userId);
+        boolean deleted = userRepo.deleteById(userId);
+        userPrincipalCache.evictUser(userId);
+        authEpochService.bumpUser(userId);
+        return deleted;
     }
 
     // Update an existing user
@@ -165,6 +213,9 @@ public class UserService {
 
         // Update the user in the database
         userRepo.update(user);
+        // Role, manager, email or password may have changed
+        userPrincipalCache.evictUser(user.getUserId());
+        authEpochService.bumpUser(user.getUserId());
 
         // Return the updated user
         return user;
@@ -1,17 +1,29 @@
 package com.kapilagro.sasyak.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.io.Encoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.PrivateJwk;
+import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.services.AuthEpochService;
+import com.kapilagro.sasyak.services.MyUserPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -38,24 +50,98 @@ public class JwtUtil {
     private static final long ACCESS_TOKEN_EXPIRATION = (1000 * 60 * 30)*6; // 90 minutes
     private static final long REFRESH_TOKEN_EXPIRATION = 1000 * 60 * 60 * 24 * 20; // 7 days
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    // When on, access tokens carry the user's identity so requests skip the user lookup
+    @Value("${jwt.claims-token.enabled:false}")
+    private boolean claimsTokenEnabled;
+
+    @Autowired(required = false)
+    private AuthEpochService authEpochService;
+
+    // Claim names of self-contained access tokens
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_TENANT_ID = "tid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_MANAGER_ID = "mid";
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_PHONE = "phone";
+    private static final String CLAIM_EPOCH = "ver";
+
+    // Refresh token id; each id is accepted once (see RefreshTokenService)
+    public static final String CLAIM_TOKEN_ID = "tokenId";
+
+    // Keys and parsers are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private SecretKey refreshSigningKey;
+    private JwtParser accessParser;
+    private JwtParser refreshParser;
+
+    // Verified access-token claims; each entry expires together with its token
+    private Cache<String, Claims> accessClaimsCache;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_kEY));
+        refreshSigningKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(REFRESH_SECRET_KEY));
+        accessParser = Jwts.parser().verifyWith(signingKey).build();
+        refreshParser = Jwts.parser().verifyWith(refreshSigningKey).build();
+        accessClaimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        return nanosUntilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return nanosUntilExpiry(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    private static long nanosUntilExpiry(Claims claims) {
+        Duration remaining = Duration.between(Instant.now(), claims.getExpiration().toInstant());
+        return remaining.isNegative() ? 0 : remaining.toNanos();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_kEY));
+        return signingKey;
     }
 
     private SecretKey getRefreshSigningKey() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(REFRESH_SECRET_KEY));
+        return refreshSigningKey;
     }
 
     // Generate Access Token
     public String generateAccessToken(UserDetails userDetails) {
-        return generateToken(userDetails, getSigningKey(), ACCESS_TOKEN_EXPIRATION);
+        Map<String, Object> claims = new HashMap<>();
+        if (claimsTokenEnabled && authEpochService != null && userDetails instanceof MyUserPrincipal principal) {
+            User user = principal.getUser();
+            claims.put(CLAIM_USER_ID, user.getUserId());
+            claims.put(CLAIM_TENANT_ID, user.getTenantId() != null ? user.getTenantId().toString() : null);
+            claims.put(CLAIM_ROLE, user.getRole());
+            claims.put(CLAIM_MANAGER_ID, user.getManagerId());
+            claims.put(CLAIM_NAME, user.getName());
+            claims.put(CLAIM_PHONE, user.getPhoneNumber());
+            claims.put(CLAIM_EPOCH, authEpochService.currentEpoch(user.getUserId()));
+        }
+        return generateToken(claims, userDetails, getSigningKey(), ACCESS_TOKEN_EXPIRATION);
     }
 
     // Generate Refresh Token
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         // Add a unique token ID to prevent reuse
-        claims.put("tokenId", UUID.randomUUID().toString());
+        claims.put(CLAIM_TOKEN_ID, UUID.randomUUID().toString());
 
         return Jwts.builder()
                 .claims(claims)
@@ -67,8 +153,7 @@ public class JwtUtil {
     }
 
     // Common token generation logic
-    private String generateToken(UserDetails userDetails, SecretKey key, long expiration) {
-        Map<String, Object> claims = new HashMap<>();
+    private String generateToken(Map<String, Object> claims, UserDetails userDetails, SecretKey key, long expiration) {
         return Jwts.builder()
                 .claims(claims)
                 .subject(userDetails.getUsername())
@@ -78,40 +163,78 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Verify an access token once and return its claims. Signature and expiry are checked by the
+    // parser (throwing JwtException on failure); a token seen before is served from the cache.
+    public Claims parseAccessToken(String token) {
+        Claims claims = accessClaimsCache.get(token, t -> accessParser.parseSignedClaims(t).getPayload());
+        if (claims.getExpiration().before(new Date())) {
+            accessClaimsCache.invalidate(token);
+            throw new ExpiredJwtException(null, claims, "JWT expired");
+        }
+        return claims;
+    }
+
     // Extract Username from Access Token
     public String extractUsername(String token) {
-        return extractClaims(token, getSigningKey()).getSubject();
+        return parseAccessToken(token).getSubject();
     }
 
     // Extract Username from Refresh Token
     public String extractUsernameFromRefreshToken(String token) {
-        return extractClaims(token, getRefreshSigningKey()).getSubject();
+        return extractClaims(token, refreshParser).getSubject();
     }
 
     // Validate Access Token
     public boolean validateToken(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token, getSigningKey());
+        return isValidFor(parseAccessToken(token), userDetails);
     }
 
-    // Validate Refresh Token
-    public boolean validateRefreshToken(String token, UserDetails userDetails) {
-        String username = extractUsernameFromRefreshToken(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token, getRefreshSigningKey());
+    // Claims from parseAccessToken are already verified and unexpired; only the subject is left to match
+    public boolean isValidFor(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername());
     }
 
-    // Check if Token is Expired
-    private boolean isTokenExpired(String token, SecretKey key) {
-        return extractClaims(token, key).getExpiration().before(new Date());
+    // True when the token carries the user's identity and the filter can skip the user lookup
+    public boolean isClaimsToken(Claims claims) {
+        return claims.get(CLAIM_USER_ID) != null;
+    }
+
+    // A claims token is stale once the user's epoch has moved on (role, manager, account or tenant change)
+    public boolean isCurrent(Claims claims) {
+        Number epoch = claims.get(CLAIM_EPOCH, Number.class);
+        return authEpochService != null && epoch != null
+                && authEpochService.isCurrent(claims.get(CLAIM_USER_ID, Number.class).intValue(), epoch.longValue());
+    }
+
+    // Rebuild the user from a claims token; the password is never part of the token
+    public User userFromClaims(Claims claims) {
+        String tenantId = claims.get(CLAIM_TENANT_ID, String.class);
+        Number managerId = claims.get(CLAIM_MANAGER_ID, Number.class);
+        return User.builder()
+                .userId(claims.get(CLAIM_USER_ID, Number.class).intValue())
+                .email(claims.getSubject())
+                .name(claims.get(CLAIM_NAME, String.class))
+                .phoneNumber(claims.get(CLAIM_PHONE, String.class))
+                .role(claims.get(CLAIM_ROLE, String.class))
+                .tenantId(tenantId != null ? UUID.fromString(tenantId) : null)
+                .managerId(managerId != null ? managerId.intValue() : null)
+                .build();
+    }
+
+    // Verify a refresh token's signature and expiry and return its claims (throws JwtException otherwise)
+    public Claims parseRefreshToken(String token) {
+        return extractClaims(token, refreshParser);
+    }
+
+    // Validate Refresh Token
+    public boolean validateRefreshToken(String token, UserDetails userDetails) {
+        Claims claims = extractClaims(token, refreshParser);
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
     }
 
     // Extract Claims from Token
-    private Claims extractClaims(String token, SecretKey key) {
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private Claims extractClaims(String token, JwtParser parser) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
 //    public static String generateAccessTokenSecret() {
@@ -0,0 +1,59 @@
+-- One-time conversion of notifications into monthly range partitions on created_at.
+-- Not run by the application: apply it by hand in a maintenance window, with the app
+-- stopped. Afterwards NotificationMaintenanceService creates partitions ahead of time
+-- and drops empty ones left behind by retention.
+--
+-- Assumes notification_id is a serial column (sequence default). The primary key
+-- becomes (notification_id, created_at) because it must include the partition key.
+
+BEGIN;
+
+LOCK TABLE notifications IN ACCESS EXCLUSIVE MODE;
+
+-- Index names are schema-wide; the partitioned table recreates them below
+DROP INDEX IF EXISTS idx_notifications_user_created;
+DROP INDEX IF EXISTS idx_notifications_user_unread;
+
+ALTER TABLE notifications RENAME TO notifications_unpartitioned;
+UPDATE notifications_unpartitioned SET created_at = now() WHERE created_at IS NULL;
+
+CREATE TABLE notifications (LIKE notifications_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE notifications ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE notifications ADD PRIMARY KEY (notification_id, created_at);
+
+-- Keep the id sequence alive when the old table is dropped
+DO $$
+DECLARE
+    seq TEXT := pg_get_serial_sequence('notifications_unpartitioned', 'notification_id');
+BEGIN
+    IF seq IS NOT NULL THEN
+        EXECUTE format('ALTER SEQUENCE %s OWNED BY notifications.notification_id', seq);
+    END IF;
+END $$;
+
+-- One partition per month from the oldest row to three months ahead, plus a default
+-- partition that should stay empty as long as partitions are created ahead of time
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE((SELECT min(created_at) FROM notifications_unpartitioned), now()))::date;
+    last_month  DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF notifications FOR VALUES FROM (%L) TO (%L)',
+                       'notifications_' || to_char(month_start, 'YYYY_MM'),
+                       month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+CREATE TABLE notifications_default PARTITION OF notifications DEFAULT;
+
+INSERT INTO notifications SELECT * FROM notifications_unpartitioned;
+DROP TABLE notifications_unpartitioned;
+
+CREATE INDEX idx_notifications_user_created
+    ON notifications (user_id, created_at DESC, notification_id DESC);
+CREATE INDEX idx_notifications_user_unread
+    ON notifications (user_id, created_at DESC, notification_id DESC) WHERE is_read = false;
+
+COMMIT;
@@ -0,0 +1,214 @@
+-- Additive schema objects applied on every startup (spring.sql.init.mode=always).
+-- Base tables are managed outside the application; everything here must be idempotent.
+
+-- Task lists page by (created_at, task_id) DESC within each list's filter
+CREATE INDEX IF NOT EXISTS idx_tasks_tenant_created
+    ON tasks (tenant_id, created_at DESC, task_id DESC);
+CREATE INDEX IF NOT EXISTS idx_tasks_tenant_creator_created
+    ON tasks (tenant_id, created_by_id, created_at DESC, task_id DESC);
+CREATE INDEX IF NOT EXISTS idx_tasks_tenant_assignee_created
+    ON tasks (tenant_id, assigned_to_id, created_at DESC, task_id DESC);
+CREATE INDEX IF NOT EXISTS idx_users_manager
+    ON users (manager_id);
+
+-- Per-tenant task counts by status and type, kept in step by TaskRepo writes
+-- and rebuilt by TaskCounterReconciliationService
+CREATE TABLE IF NOT EXISTS task_counters (
+    tenant_id  UUID         NOT NULL,
+    status     VARCHAR(50)  NOT NULL,
+    task_type  VARCHAR(100) NOT NULL,
+    task_count BIGINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, status, task_type)
+);
+
+-- Daily per-tenant task aggregates for the report endpoints (see TaskRollupRepo).
+-- A missing creator/assignee is stored as 0 so it can be part of the key.
+CREATE TABLE IF NOT EXISTS task_daily_rollups (
+    tenant_id           UUID             NOT NULL,
+    day                 DATE             NOT NULL,
+    task_type           VARCHAR(100)     NOT NULL,
+    created_by_id       INTEGER          NOT NULL,
+    assigned_to_id      INTEGER          NOT NULL,
+    created_count       BIGINT           NOT NULL DEFAULT 0,
+    implemented_count   BIGINT           NOT NULL DEFAULT 0,
+    implemented_seconds DOUBLE PRECISION NOT NULL DEFAULT 0,
+    PRIMARY KEY (tenant_id, day, task_type, created_by_id, assigned_to_id)
+);
+
+-- /api/tasks/search?details.*= compiles to details_json @> '{...}'
+CREATE INDEX IF NOT EXISTS idx_tasks_details_json
+    ON tasks USING GIN (details_json jsonb_path_ops);
+
+-- Full-text search document per task: description (A), selected detail fields (B)
+-- and the text of every advice given on the task (C). Kept current by the triggers below.
+CREATE OR REPLACE FUNCTION task_search_document(p_task_id INTEGER, p_description TEXT, p_details JSONB)
+    RETURNS tsvector LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('english', COALESCE(p_description, '')), 'A')
+        || setweight(to_tsvector('english', concat_ws(' ',
+               p_details ->> 'crop', p_details ->> 'variety', p_details ->> 'field', p_details ->> 'block',
+               p_details ->> 'pest', p_details ->> 'disease', p_details ->> 'remarks')), 'B')
+        || setweight(to_tsvector('english', COALESCE(
+               (SELECT string_agg(advice_text, ' ') FROM task_advices WHERE task_id = p_task_id), '')), 'C')
+$$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'tasks' AND column_name = 'search_vector') THEN
+        ALTER TABLE tasks ADD COLUMN search_vector tsvector;
+        UPDATE tasks SET search_vector = task_search_document(task_id, description, details_json);
+    END IF;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION tasks_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := task_search_document(NEW.task_id, NEW.description, NEW.details_json);
+    RETURN NEW;
+END
+$$;
+
+-- Triggers are only created when missing: this script runs on every start, and dropping and
+-- re-creating them would lock the table each time. Function bodies above are still replaced.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                   WHERE tgname = 'trg_tasks_search_vector' AND tgrelid = 'tasks'::regclass) THEN
+        CREATE TRIGGER trg_tasks_search_vector
+            BEFORE INSERT OR UPDATE OF description, details_json ON tasks
+            FOR EACH ROW EXECUTE FUNCTION tasks_search_vector_refresh();
+    END IF;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION task_advices_search_vector_refresh() RETURNS trigger LANGUAGE plpgsql AS $$
+DECLARE
+    affected_task_id INTEGER;
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        affected_task_id := OLD.task_id;
+    ELSE
+        affected_task_id := NEW.task_id;
+    END IF;
+    UPDATE tasks SET search_vector = task_search_document(task_id, description, details_json)
+    WHERE task_id = affected_task_id;
+    IF TG_OP = 'UPDATE' AND OLD.task_id <> NEW.task_id THEN
+        UPDATE tasks SET search_vector = task_search_document(task_id, description, details_json)
+        WHERE task_id = OLD.task_id;
+    END IF;
+    RETURN NULL;
+END
+$$;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                   WHERE tgname = 'trg_task_advices_search_vector' AND tgrelid = 'task_advices'::regclass) THEN
+        CREATE TRIGGER trg_task_advices_search_vector
+            AFTER INSERT OR UPDATE OR DELETE ON task_advices
+            FOR EACH ROW EXECUTE FUNCTION task_advices_search_vector_refresh();
+    END IF;
+END
+$$;
+
+CREATE INDEX IF NOT EXISTS idx_tasks_search_vector
+    ON tasks USING GIN (search_vector);
+
+-- Outbox of task changes awaiting notification; appended in the write transaction
+-- and drained (then deleted) by TaskEventDispatcher
+CREATE TABLE IF NOT EXISTS task_events (
+    event_id       BIGSERIAL    PRIMARY KEY,
+    tenant_id      UUID         NOT NULL,
+    task_id        INTEGER      NOT NULL,
+    event_type     VARCHAR(30)  NOT NULL,
+    actor_id       INTEGER      NOT NULL,
+    created_by_id  INTEGER,
+    assigned_to_id INTEGER,
+    task_type      VARCHAR(100),
+    status         VARCHAR(50),
+    created_at     TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+-- Failed deliveries; an event that keeps failing is moved to task_events_dead
+ALTER TABLE task_events ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+-- A failed event is not claimed again before this time (backoff doubles per attempt)
+ALTER TABLE task_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMPTZ NOT NULL DEFAULT now();
+CREATE TABLE IF NOT EXISTS task_events_dead (
+    event_id       BIGINT       PRIMARY KEY,
+    tenant_id      UUID         NOT NULL,
+    task_id        INTEGER      NOT NULL,
+    event_type     VARCHAR(30)  NOT NULL,
+    actor_id       INTEGER      NOT NULL,
+    created_by_id  INTEGER,
+    assigned_to_id INTEGER,
+    task_type      VARCHAR(100),
+    status         VARCHAR(50),
+    created_at     TIMESTAMPTZ  NOT NULL,
+    attempts       INTEGER      NOT NULL,
+    last_error     TEXT,
+    dead_at        TIMESTAMPTZ  NOT NULL DEFAULT now()
+);
+
+-- Per-user auth epochs; claims access tokens issued under an older epoch are rejected
+CREATE TABLE IF NOT EXISTS auth_epochs (
+    user_id    INTEGER     PRIMARY KEY,
+    epoch      BIGINT      NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idx_auth_epochs_updated
+    ON auth_epochs (updated_at);
+
+-- Used or revoked refresh token ids, kept until the token would have expired
+CREATE TABLE IF NOT EXISTS refresh_token_revocations (
+    token_id   UUID        PRIMARY KEY,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idx_refresh_token_revocations_expires
+    ON refresh_token_revocations (expires_at);
+
+-- Notification inbox pages by (created_at, notification_id) DESC per user; the partial
+-- index serves the unread filter and unread counts without touching read rows
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC, notification_id DESC);
+CREATE INDEX IF NOT EXISTS idx_notifications_user_unread
+    ON notifications (user_id, created_at DESC, notification_id DESC) WHERE is_read = false;
+
+-- Per-tenant override of how long read notifications are kept (default:
+-- notifications.retention.read-days); unread notifications are never removed
+CREATE TABLE IF NOT EXISTS notification_retention_policies (
+    tenant_id           UUID    PRIMARY KEY,
+    read_retention_days INTEGER NOT NULL CHECK (read_retention_days > 0)
+);
+
+-- Task updates folded into one unread notification per task and recipient
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS change_count INTEGER NOT NULL DEFAULT 1;
+
+-- Per-tenant catalog version, bumped by every catalog write; cached catalog snapshots
+-- older than it are reloaded
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    tenant_id  UUID        PRIMARY KEY,
+    version    BIGINT      NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS idx_catalog_versions_updated
+    ON catalog_versions (updated_at);
+
+-- Catalog version that last changed each row, and the rows deleted at each version, so
+-- clients can fetch only what changed since the version they hold
+ALTER TABLE catalog ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_catalog_tenant_version
+    ON catalog (tenant_id, version);
+
+CREATE TABLE IF NOT EXISTS catalog_tombstones (
+    tenant_id  UUID        NOT NULL,
+    catalog_id INTEGER     NOT NULL,
+    version    BIGINT      NOT NULL,
+    deleted_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (tenant_id, catalog_id)
+);
+CREATE INDEX IF NOT EXISTS idx_catalog_tombstones_tenant_version
+    ON catalog_tombstones (tenant_id, version);
+
+-- Catalog imports match existing items on (category ignoring case, value)
+CREATE INDEX IF NOT EXISTS idx_catalog_tenant_category_value
+    ON catalog (tenant_id, lower(category), value);
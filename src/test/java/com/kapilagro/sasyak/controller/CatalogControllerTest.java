@@ -0,0 +1,87 @@
+package com.kapilagro.sasyak.controller;
+
+import com.kapilagro.sasyak.model.Catalog;
+import com.kapilagro.sasyak.model.CatalogSnapshot;
+import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.services.CatalogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogControllerTest {
+
+    private final CatalogService catalogService = mock(CatalogService.class);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tenantsAtTheSameVersionDoNotShareAnETag() {
+        UUID tenantA = UUID.randomUUID();
+        UUID tenantB = UUID.randomUUID();
+        when(catalogService.getCatalogSnapshot(tenantA)).thenReturn(CatalogSnapshot.of(3, List.of(
+                Catalog.builder().id(1).category("Crop").value("Wheat").build())));
+        when(catalogService.getCatalogSnapshot(tenantB)).thenReturn(CatalogSnapshot.of(3, List.of(
+                Catalog.builder().id(2).category("Crop").value("Rice").build())));
+
+        ResponseEntity<?> first = getCatalogAs(tenantA, null);
+        String etagA = first.getHeaders().getETag();
+        assertThat(getCatalogAs(tenantA, etagA).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        // Same device, now logged into tenant B at the same catalog version
+        ResponseEntity<?> switched = getCatalogAs(tenantB, etagA);
+        assertThat(switched.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(switched.getHeaders().getETag()).isNotEqualTo(etagA);
+    }
+
+    @Test
+    void categoryItemsComeFromTheSnapshotThatSetsTheETag() {
+        UUID tenantId = UUID.randomUUID();
+        when(catalogService.getCatalogSnapshot(tenantId)).thenReturn(CatalogSnapshot.of(5, List.of(
+                Catalog.builder().id(1).category("Crop").value("Wheat").build())));
+        CatalogController controller = controllerFor(tenantId);
+
+        ResponseEntity<?> response = controller.getCatalogByCategory("crop", request(null));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"" + tenantId + "-5\"");
+        assertThat((List<?>) response.getBody()).hasSize(1);
+    }
+
+    private ResponseEntity<?> getCatalogAs(UUID tenantId, String ifNoneMatch) {
+        return controllerFor(tenantId).getCatalog(request(ifNoneMatch));
+    }
+
+    private CatalogController controllerFor(UUID tenantId) {
+        User user = User.builder().userId(1).tenantId(tenantId).role("ADMIN").build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, List.of()));
+        CatalogController controller = new CatalogController();
+        ReflectionTestUtils.setField(controller, "catalogService", catalogService);
+        return controller;
+    }
+
+    private ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/catalog");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+}
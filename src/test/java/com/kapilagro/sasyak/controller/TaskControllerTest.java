@@ -0,0 +1,31 @@
+package com.kapilagro.sasyak.controller;
+
+import com.kapilagro.sasyak.services.TaskExportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class TaskControllerTest {
+
+    @Test
+    void exportRejectsUnsupportedFormatsAndInvertedRanges() {
+        TaskExportService exportService = mock(TaskExportService.class);
+        TaskController controller = new TaskController();
+        ReflectionTestUtils.setField(controller, "taskExportService", exportService);
+
+        ResponseEntity<?> xml = controller.exportTasks("xml", null, null);
+        ResponseEntity<?> inverted = controller.exportTasks("csv", LocalDate.of(2025, 3, 2), LocalDate.of(2025, 3, 1));
+
+        assertThat(xml.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(xml.getBody()).isEqualTo("Unsupported export format: xml");
+        assertThat(inverted.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(exportService);
+    }
+}
@@ -0,0 +1,29 @@
+package com.kapilagro.sasyak.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NotificationCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 6, 1, 8, 30, 15, 123456000, ZoneOffset.ofHoursMinutes(5, 30));
+        NotificationCursor cursor = new NotificationCursor(createdAt, 991);
+
+        NotificationCursor decoded = NotificationCursor.decode(cursor.encode());
+
+        assertThat(decoded.getCreatedAt().toInstant()).isEqualTo(createdAt.toInstant());
+        assertThat(decoded.getNotificationId()).isEqualTo(991);
+    }
+
+    @Test
+    void rejectsGarbage() {
+        assertThatThrownBy(() -> NotificationCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,29 @@
+package com.kapilagro.sasyak.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndTaskId() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2025, 3, 14, 9, 26, 53, 589_793_000, ZoneOffset.ofHoursMinutes(5, 30));
+        TaskCursor cursor = TaskCursor.of(Task.builder().taskId(4242).createdAt(createdAt).build());
+
+        TaskCursor decoded = TaskCursor.decode(cursor.encode());
+
+        assertThat(decoded.getTaskId()).isEqualTo(4242);
+        assertThat(decoded.getCreatedAt().toInstant()).isEqualTo(createdAt.toInstant());
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> TaskCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.kapilagro.sasyak.repository;
+
+import com.kapilagro.sasyak.model.CatalogImportResponse;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogRepoTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CatalogRepo repo = new CatalogRepo();
+
+    // No database in unit tests, so check the statement's shape: one WITH list of four
+    // CTEs, balanced parentheses, and one placeholder per bound argument
+    @Test
+    void importMergeIsOneWellFormedStatement() {
+        ReflectionTestUtils.setField(repo, "jdbcTemplate", jdbcTemplate);
+        UUID tenantId = UUID.randomUUID();
+
+        repo.mergeImportStaging(tenantId, 5, 12L);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).queryForObject(sql.capture(), any(RowMapper.class), args.capture());
+
+        String statement = sql.getValue();
+        int depth = 0;
+        for (char c : statement.toCharArray()) {
+            if (c == '(') depth++;
+            if (c == ')') depth--;
+            assertThat(depth).as("parentheses in %s", statement).isNotNegative();
+        }
+        assertThat(depth).isZero();
+        assertThat(statement).doesNotContainPattern(Pattern.compile("\\)\\s*\\)\\s*,"));
+        assertThat(statement).containsSubsequence("WITH latest AS (", "), updated AS (", "), inserted AS (",
+                "), counts AS (", ") SELECT inserted, updated, distinct_rows - inserted - updated AS unchanged FROM counts");
+        assertThat(statement.chars().filter(c -> c == '?').count()).isEqualTo(args.getValue().length);
+        assertThat(args.getValue()).containsExactly(12L, tenantId, tenantId, 5, 12L, tenantId);
+    }
+}
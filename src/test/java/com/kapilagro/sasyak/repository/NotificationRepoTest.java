@@ -0,0 +1,33 @@
+package com.kapilagro.sasyak.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class NotificationRepoTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final NotificationRepo repo = new NotificationRepo(jdbcTemplate);
+
+    // Statements sent for 1, 10, 100 and 1000 recipients: one per 500-row chunk instead of one per user
+    @Test
+    void recipientsAreWrittenAsMultiRowInserts() {
+        int[][] cases = {{1, 1}, {10, 1}, {100, 1}, {1000, 2}};
+        for (int[] c : cases) {
+            clearInvocations(jdbcTemplate);
+            List<Integer> userIds = IntStream.rangeClosed(1, c[0]).boxed().toList();
+
+            repo.saveForUsers(UUID.randomUUID(), userIds, "Title", "Message", 42);
+
+            verify(jdbcTemplate, times(c[1])).query(anyString(), any(RowMapper.class), any(Object[].class));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.kapilagro.sasyak.repository;
+
+import com.kapilagro.sasyak.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TaskRollupRepoTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.of(2025, 3, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime UPDATED = CREATED.plusDays(2);
+
+    private final UUID tenantId = UUID.randomUUID();
+    private JdbcTemplate jdbcTemplate;
+    private TaskRollupRepo repo;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repo = new TaskRollupRepo(jdbcTemplate);
+    }
+
+    @Test
+    void implementingATaskOnlyAddsTheCompletionRow() {
+        Task before = task("submitted", 7, CREATED);
+        Task after = task("implemented", 7, UPDATED);
+
+        repo.apply(before, after);
+
+        List<Object[]> rows = capturedRows();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsExactly(tenantId, UPDATED, "SCOUTING", 3, 7, 0, 1, 2 * 86400.0);
+    }
+
+    @Test
+    void reassigningAnImplementedTaskMovesBothRows() {
+        Task before = task("implemented", 7, UPDATED);
+        Task after = task("implemented", 8, UPDATED.plusHours(1));
+
+        repo.apply(before, after);
+
+        List<Object[]> rows = capturedRows();
+        assertThat(rows).hasSize(4);
+        assertThat(rows).anySatisfy(row -> assertThat(row).containsExactly(tenantId, CREATED, "SCOUTING", 3, 7, -1, 0, 0.0));
+        assertThat(rows).anySatisfy(row -> assertThat(row).containsExactly(tenantId, CREATED, "SCOUTING", 3, 8, 1, 0, 0.0));
+    }
+
+    @Test
+    void unchangedContributionWritesNothing() {
+        Task before = task("submitted", 7, CREATED);
+        Task after = task("approved", 7, UPDATED);
+
+        repo.apply(before, after);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private Task task(String status, int assignee, OffsetDateTime updatedAt) {
+        return Task.builder()
+                .tenantId(tenantId)
+                .createdById(3)
+                .assignedToId(assignee)
+                .taskType("SCOUTING")
+                .status(status)
+                .createdAt(CREATED)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> capturedRows() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), captor.capture());
+        return captor.getValue();
+    }
+}
@@ -0,0 +1,128 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.DashBoardResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AdminServiceTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private UserService userService;
+    private TaskService taskService;
+    private AdviceService adviceService;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+    private AdminService adminService;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        taskService = mock(TaskService.class);
+        adviceService = mock(AdviceService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        adminService = new AdminService();
+        ReflectionTestUtils.setField(adminService, "userService", userService);
+        ReflectionTestUtils.setField(adminService, "taskService", taskService);
+        ReflectionTestUtils.setField(adminService, "adviceService", adviceService);
+        ReflectionTestUtils.setField(adminService, "dashboardExecutor", executor);
+        ReflectionTestUtils.setField(adminService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(adminService, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(adminService, "dashboardQueryTimeoutMs", 500L);
+        ReflectionTestUtils.setField(adminService, "dashboardMaxConcurrentQueries", 3);
+        adminService.initDashboard();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void dashboardQueriesOverlapUpToThePermitCount() {
+        // Each query waits until three are running at once; run one at a time, they would time out
+        CountDownLatch running = new CountDownLatch(3);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        ReflectionTestUtils.setField(adminService, "dashboardQueryTimeoutMs", 5_000L);
+
+        when(userService.countUsersByTenant(tenantId)).thenAnswer(overlapping(12, running, active, maxActive));
+        when(userService.countUsersByTenantAndRole(tenantId, "Manager")).thenAnswer(overlapping(3, running, active, maxActive));
+        when(userService.countUsersByTenantAndRole(tenantId, "Supervisor")).thenAnswer(overlapping(4, running, active, maxActive));
+        when(taskService.countTasksByTenant(tenantId)).thenAnswer(overlapping(40, running, active, maxActive));
+        when(taskService.getTaskStatusBreakdown(tenantId)).thenAnswer(overlapping(Map.of("submitted", 40), running, active, maxActive));
+        when(taskService.countRecentTasksByTenant(tenantId, 7)).thenAnswer(overlapping(9, running, active, maxActive));
+        when(adviceService.countAdviceByTenant(tenantId)).thenAnswer(overlapping(5, running, active, maxActive));
+
+        DashBoardResponse response = adminService.getDashboardStats(tenantId);
+
+        assertThat(maxActive.get()).isEqualTo(3);
+        verify(jdbcTemplate, times(7)).execute("SET LOCAL statement_timeout = 5000");
+        assertThat(response.getTotalEmployees()).isEqualTo(12);
+        assertThat(response.getTotalTasks()).isEqualTo(40);
+        assertThat(response.getTaskStatusBreakdown()).containsEntry("submitted", 40);
+        assertThat(response.getUnavailableStats()).isNull();
+        assertThat(response.getErrorMessage()).isNull();
+    }
+
+    @Test
+    void failedAndSlowQueriesYieldPartialResults() {
+        when(userService.countUsersByTenant(tenantId)).thenReturn(12);
+        when(userService.countUsersByTenantAndRole(eq(tenantId), any())).thenReturn(3);
+        when(taskService.countTasksByTenant(tenantId)).thenThrow(new IllegalStateException("boom"));
+        when(taskService.getTaskStatusBreakdown(tenantId)).thenReturn(Map.of());
+        when(taskService.countRecentTasksByTenant(eq(tenantId), anyInt())).thenAnswer(slow(9, 2_000));
+        when(adviceService.countAdviceByTenant(tenantId)).thenReturn(5);
+
+        DashBoardResponse response = adminService.getDashboardStats(tenantId);
+
+        assertThat(response.getTotalEmployees()).isEqualTo(12);
+        assertThat(response.getAdviceCount()).isEqualTo(5);
+        assertThat(response.getTotalTasks()).isZero();
+        assertThat(response.getRecentTasks()).isZero();
+        assertThat(response.getUnavailableStats()).containsExactlyInAnyOrder("totalTasks", "recentTasks");
+        assertThat(response.getErrorMessage()).contains("totalTasks");
+    }
+
+    private static <T> Answer<T> overlapping(T value, CountDownLatch running, AtomicInteger active, AtomicInteger maxActive) {
+        return invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                running.countDown();
+                if (!running.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("queries did not overlap");
+                }
+                return value;
+            } finally {
+                active.decrementAndGet();
+            }
+        };
+    }
+
+    private static <T> Answer<T> slow(T value, long millis) {
+        return invocation -> {
+            Thread.sleep(millis);
+            return value;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.Catalog;
+import com.kapilagro.sasyak.model.CatalogItem;
+import com.kapilagro.sasyak.model.CatalogSnapshot;
+import com.kapilagro.sasyak.repository.CatalogRepo;
+import com.kapilagro.sasyak.repository.CatalogVersionRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CatalogCacheTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private CatalogRepo catalogRepo;
+    private CatalogVersionRepo catalogVersionRepo;
+    private CatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        catalogRepo = mock(CatalogRepo.class);
+        catalogVersionRepo = mock(CatalogVersionRepo.class);
+        cache = new CatalogCache(catalogRepo, catalogVersionRepo);
+
+        when(catalogVersionRepo.getVersion(tenantId)).thenReturn(4L);
+        when(catalogRepo.findByTenantId(tenantId)).thenReturn(List.of(
+                row(1, "Crop", "Wheat"),
+                row(2, "crop", "Rice"),
+                row(3, "Pest", "Aphid")));
+    }
+
+    @Test
+    void snapshotIsLoadedOnceAndIndexedByCategory() {
+        CatalogSnapshot snapshot = cache.get(tenantId);
+        cache.get(tenantId);
+
+        assertThat(snapshot.getVersion()).isEqualTo(4);
+        assertThat(snapshot.getItems()).hasSize(3);
+        assertThat(snapshot.getCategories()).containsExactly("Crop", "crop", "Pest");
+        assertThat(snapshot.getItemsByCategory(" CROP ")).extracting(CatalogItem::getValue).containsExactly("Rice", "Wheat");
+        assertThat(snapshot.getItemsByCategory("fertilizer")).isEmpty();
+        verify(catalogRepo, times(1)).findByTenantId(tenantId);
+    }
+
+    @Test
+    void singleSpellingCategoryKeepsDatabaseOrder() {
+        // Database collation puts "apple" before "Banana"; String.compareTo would not
+        when(catalogRepo.findByTenantId(tenantId)).thenReturn(List.of(
+                row(1, "Crop", "apple"),
+                row(2, "Crop", "Banana")));
+
+        assertThat(cache.get(tenantId).getItemsByCategory("crop"))
+                .extracting(CatalogItem::getValue).containsExactly("apple", "Banana");
+    }
+
+    @Test
+    void newerVersionRebuildsTheSnapshot() {
+        cache.get(tenantId);
+        cache.versionChanged(tenantId, 4);
+        cache.get(tenantId);
+        verify(catalogRepo, times(1)).findByTenantId(tenantId);
+
+        when(catalogVersionRepo.getVersion(tenantId)).thenReturn(5L);
+        cache.versionChanged(tenantId, 5);
+
+        assertThat(cache.get(tenantId).getVersion()).isEqualTo(5);
+        verify(catalogRepo, times(2)).findByTenantId(tenantId);
+    }
+
+    private Catalog row(int id, String category, String value) {
+        return Catalog.builder().id(id).tenantId(tenantId).category(category).value(value).build();
+    }
+}
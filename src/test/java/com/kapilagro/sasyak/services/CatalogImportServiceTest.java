@@ -0,0 +1,120 @@
+package com.kapilagro.sasyak.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kapilagro.sasyak.model.CatalogImportError;
+import com.kapilagro.sasyak.model.CatalogImportResponse;
+import com.kapilagro.sasyak.model.CatalogImportRow;
+import com.kapilagro.sasyak.repository.CatalogRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogImportServiceTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private final List<CatalogImportRow> staged = new ArrayList<>();
+    private CatalogRepo catalogRepo;
+    private CatalogService catalogService;
+    private CatalogImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        catalogRepo = mock(CatalogRepo.class);
+        catalogService = spy(new CatalogService());
+        doReturn(12L).when(catalogService).bumpVersion(tenantId);
+        importService = new CatalogImportService(catalogRepo, catalogService, new ObjectMapper(),
+                mock(PlatformTransactionManager.class));
+
+        when(catalogRepo.copyIntoStaging(any())).thenAnswer(invocation -> {
+            Iterator<CatalogImportRow> rows = invocation.getArgument(0);
+            rows.forEachRemaining(staged::add);
+            return staged.size();
+        });
+        when(catalogRepo.mergeImportStaging(tenantId, 5, 12L)).thenReturn(
+                CatalogImportResponse.builder().inserted(2).updated(1).build());
+    }
+
+    @Test
+    void csvRowsAreStagedOnceAndInvalidRowsReported() throws Exception {
+        String csv = "value,category,details\r\n" +
+                "Wheat,Crop,\"Rabi, irrigated\"\r\n" +
+                "\r\n" +
+                ",Crop,missing value\r\n" +
+                "Aphid,Pest,\"sap feeder\nsecond line\"\r\n" +
+                "Urea,Fertilizer,\r\n";
+
+        CatalogImportResponse response = importService.importCatalog(stream(csv), CatalogImportService.CSV, 5, tenantId);
+
+        assertThat(staged).extracting(CatalogImportRow::getLine).containsExactly(2, 5, 7);
+        assertThat(staged.get(0).getDetails()).isEqualTo("Rabi, irrigated");
+        assertThat(staged.get(1).getDetails()).isEqualTo("sap feeder\nsecond line");
+        assertThat(staged.get(2).getDetails()).isNull();
+
+        assertThat(response.getReceived()).isEqualTo(4);
+        assertThat(response.getInserted()).isEqualTo(2);
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getUnchanged()).isZero();
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getVersion()).isEqualTo(12L);
+        assertThat(response.getErrors()).extracting(CatalogImportError::getLine).containsExactly(4);
+        verify(catalogService, times(1)).bumpVersion(tenantId);
+    }
+
+    @Test
+    void repeatedRowsAreNotCountedAsUnchanged() throws Exception {
+        // Three staged rows, two distinct: the merge reports against the distinct rows
+        when(catalogRepo.mergeImportStaging(tenantId, 5, 12L)).thenReturn(
+                CatalogImportResponse.builder().inserted(1).updated(1).unchanged(0).build());
+        String csv = "value,category,details\n" +
+                "Wheat,Crop,old\n" +
+                "Wheat,crop,new\n" +
+                "Rice,Crop,\n";
+
+        CatalogImportResponse response = importService.importCatalog(stream(csv), CatalogImportService.CSV, 5, tenantId);
+
+        assertThat(staged).hasSize(3);
+        assertThat(response.getReceived()).isEqualTo(3);
+        assertThat(response.getInserted()).isEqualTo(1);
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getUnchanged()).isZero();
+    }
+
+    @Test
+    void ndjsonWithNoValidRowsLeavesTheCatalogAlone() throws Exception {
+        String ndjson = "{\"category\": \"Crop\"}\n" +
+                "not json\n";
+
+        CatalogImportResponse response = importService.importCatalog(stream(ndjson), CatalogImportService.NDJSON, 5, tenantId);
+
+        assertThat(response.getReceived()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getVersion()).isNull();
+        assertThat(response.getErrors()).extracting(CatalogImportError::getLine).containsExactly(1, 2);
+        verify(catalogService, never()).bumpVersion(any());
+        verify(catalogRepo, never()).mergeImportStaging(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void csvHeaderWithoutValueColumnIsRejected() {
+        assertThatThrownBy(() -> importService.importCatalog(stream("category,details\nCrop,x\n"),
+                CatalogImportService.CSV, 5, tenantId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,93 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.Catalog;
+import com.kapilagro.sasyak.model.CatalogChangesResponse;
+import com.kapilagro.sasyak.model.CatalogResponse;
+import com.kapilagro.sasyak.model.CatalogSnapshot;
+import com.kapilagro.sasyak.repository.CatalogRepo;
+import com.kapilagro.sasyak.repository.CatalogVersionRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CatalogServiceTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private CatalogRepo catalogRepo;
+    private CatalogVersionRepo catalogVersionRepo;
+    private CatalogCache catalogCache;
+    private CatalogService catalogService;
+
+    @BeforeEach
+    void setUp() {
+        catalogRepo = mock(CatalogRepo.class);
+        catalogVersionRepo = mock(CatalogVersionRepo.class);
+        catalogCache = mock(CatalogCache.class);
+        catalogService = new CatalogService();
+        ReflectionTestUtils.setField(catalogService, "catalogRepo", catalogRepo);
+        ReflectionTestUtils.setField(catalogService, "catalogVersionRepo", catalogVersionRepo);
+        ReflectionTestUtils.setField(catalogService, "catalogCache", catalogCache);
+
+        when(catalogCache.get(tenantId)).thenReturn(CatalogSnapshot.of(7, List.of()));
+    }
+
+    @Test
+    void upToDateClientIsAnsweredWithoutAQuery() {
+        CatalogChangesResponse changes = catalogService.getCatalogChanges(tenantId, 7);
+
+        assertThat(changes.getVersion()).isEqualTo(7);
+        assertThat(changes.getChanged()).isEmpty();
+        assertThat(changes.getDeletedIds()).isEmpty();
+        verifyNoInteractions(catalogRepo);
+    }
+
+    @Test
+    void sinceZeroListsRowsWrittenBeforeVersioning() {
+        // Pre-existing rows keep version 0 and the tenant has never been bumped
+        when(catalogCache.get(tenantId)).thenReturn(CatalogSnapshot.of(0, List.of(
+                Catalog.builder().id(1).category("Crop").value("Wheat").build(),
+                Catalog.builder().id(2).category("Pest").value("Aphid").build())));
+
+        CatalogChangesResponse changes = catalogService.getCatalogChanges(tenantId, 0);
+
+        assertThat(changes.getVersion()).isZero();
+        assertThat(changes.getChanged()).extracting(CatalogResponse::getId).containsExactly(1, 2);
+        assertThat(changes.getDeletedIds()).isEmpty();
+        verifyNoInteractions(catalogRepo);
+    }
+
+    @Test
+    void changesSinceAVersionIncludeUpdatesAndDeletions() {
+        when(catalogRepo.findByTenantIdChangedSince(tenantId, 5)).thenReturn(List.of(
+                Catalog.builder().id(3).category("Crop").value("Millet").version(6).build()));
+        when(catalogRepo.findDeletedIdsSince(tenantId, 5)).thenReturn(List.of(9));
+
+        CatalogChangesResponse changes = catalogService.getCatalogChanges(tenantId, 5);
+
+        assertThat(changes.getVersion()).isEqualTo(7);
+        assertThat(changes.getChanged()).extracting(CatalogResponse::getId).containsExactly(3);
+        assertThat(changes.getDeletedIds()).containsExactly(9);
+    }
+
+    @Test
+    void deleteLeavesATombstoneAtTheNewVersion() {
+        when(catalogRepo.findByIdAndTenantId(9, tenantId)).thenReturn(Optional.of(Catalog.builder().id(9).build()));
+        when(catalogRepo.deleteByIdAndTenantId(9, tenantId)).thenReturn(true);
+        when(catalogVersionRepo.bump(tenantId)).thenReturn(8L);
+
+        assertThat(catalogService.deleteCatalog(9, tenantId)).isTrue();
+
+        verify(catalogRepo).saveTombstone(9, tenantId, 8L);
+        verify(catalogCache).versionChanged(tenantId, 8L);
+        verify(catalogVersionRepo, times(1)).bump(tenantId);
+        verify(catalogRepo, never()).findByTenantIdChangedSince(any(), anyLong());
+    }
+}
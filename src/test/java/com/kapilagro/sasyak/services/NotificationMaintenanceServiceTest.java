@@ -0,0 +1,68 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.NotificationPartitionRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationMaintenanceServiceTest {
+
+    private NotificationPartitionRepo partitionRepo;
+    private NotificationMaintenanceService service;
+
+    @BeforeEach
+    void setUp() {
+        partitionRepo = mock(NotificationPartitionRepo.class);
+        service = new NotificationMaintenanceService();
+        ReflectionTestUtils.setField(service, "partitionRepo", partitionRepo);
+        ReflectionTestUtils.setField(service, "monthsAhead", 2);
+        ReflectionTestUtils.setField(service, "readRetentionDays", 180);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+    }
+
+    @Test
+    void createsCurrentAndUpcomingMonthsOnlyWhenPartitioned() {
+        when(partitionRepo.isPartitioned()).thenReturn(false);
+        service.ensurePartitions();
+        verify(partitionRepo, never()).createMonthPartition(any());
+
+        when(partitionRepo.isPartitioned()).thenReturn(true);
+        service.ensurePartitions();
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        verify(partitionRepo).createMonthPartition(month);
+        verify(partitionRepo).createMonthPartition(month.plusMonths(2));
+        verify(partitionRepo, times(3)).createMonthPartition(any());
+    }
+
+    @Test
+    void retentionDeletesInBatchesUntilShortBatch() {
+        when(partitionRepo.minRetentionDays(180)).thenReturn(30);
+        when(partitionRepo.deleteExpiredRead(180, 30, 100)).thenReturn(100, 100, 7);
+
+        service.purgeReadNotifications();
+
+        verify(partitionRepo, times(3)).deleteExpiredRead(180, 30, 100);
+    }
+
+    @Test
+    void dropsOnlyEmptyPartitionsBeforeTheCurrentMonth() {
+        String current = NotificationPartitionRepo.partitionName(LocalDate.now().withDayOfMonth(1));
+        when(partitionRepo.isPartitioned()).thenReturn(true);
+        when(partitionRepo.monthPartitions()).thenReturn(List.of("notifications_2020_01", "notifications_2020_02", current));
+        when(partitionRepo.isEmpty("notifications_2020_01")).thenReturn(true);
+        when(partitionRepo.isEmpty("notifications_2020_02")).thenReturn(false);
+        when(partitionRepo.isEmpty(current)).thenReturn(true);
+
+        service.dropEmptyPartitions();
+
+        verify(partitionRepo).dropPartition("notifications_2020_01");
+        verify(partitionRepo, never()).dropPartition("notifications_2020_02");
+        verify(partitionRepo, never()).dropPartition(current);
+    }
+}
@@ -0,0 +1,60 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.Notification;
+import com.kapilagro.sasyak.model.NotificationDTO;
+import com.kapilagro.sasyak.repository.NotificationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class NotificationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NotificationStreamRegistry streamRegistry;
+    private UnreadCountCache unreadCounts;
+    private NotificationRepo notificationRepo;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        streamRegistry = mock(NotificationStreamRegistry.class);
+        unreadCounts = mock(UnreadCountCache.class);
+        notificationRepo = mock(NotificationRepo.class);
+        notificationService = new NotificationService(jdbcTemplate, notificationRepo, streamRegistry, unreadCounts);
+    }
+
+    @Test
+    void publishPushesToConnectedRecipientsOnly() {
+        when(streamRegistry.isConnected(1)).thenReturn(true);
+        when(unreadCounts.get(1)).thenReturn(2);
+
+        notificationService.publish(List.of(
+                Notification.builder().notificationId(10).userId(1).title("a").build(),
+                Notification.builder().notificationId(11).userId(1).title("b").build(),
+                Notification.builder().notificationId(12).userId(2).title("c").build()));
+
+        verify(streamRegistry, times(2)).send(eq(1), eq(NotificationService.NOTIFICATION_EVENT), any(NotificationDTO.class));
+        verify(streamRegistry, times(1)).send(1, NotificationService.UNREAD_COUNT_EVENT, Map.of("count", 2));
+        verify(streamRegistry, never()).send(eq(2), anyString(), any());
+        verify(unreadCounts, times(2)).increment(1, 1);
+        verify(unreadCounts).increment(2, 1);
+    }
+
+    @Test
+    void outOfRangePageSizesAreRejectedBeforeQuerying() {
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getNotifications(1, false, null, 0, 0, false));
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getNotifications(1, false, "", 0, -5, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> notificationService.getNotifications(1, false, null, 0, NotificationService.MAX_PAGE_SIZE + 1, false));
+        assertThrows(IllegalArgumentException.class, () -> notificationService.getNotifications(1, false, null, -1, 10, false));
+        verifyNoInteractions(notificationRepo);
+    }
+}
@@ -0,0 +1,93 @@
+package com.kapilagro.sasyak.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class NotificationStreamRegistryTest {
+
+    private final CountDownLatch clientStalled = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<StubEmitter> opened = new ArrayList<>();
+    private NotificationStreamRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new NotificationStreamRegistry() {
+            @Override
+            SseEmitter newEmitter() {
+                StubEmitter emitter = new StubEmitter();
+                opened.add(emitter);
+                return emitter;
+            }
+        };
+        ReflectionTestUtils.setField(registry, "timeout", Duration.ofMinutes(30));
+        ReflectionTestUtils.setField(registry, "maxPerUser", 2);
+        ReflectionTestUtils.setField(registry, "sendQueueCapacity", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        registry.shutdown();
+    }
+
+    @Test
+    void openingAnotherStreamClosesTheOldest() {
+        registry.register(1);
+        registry.register(1);
+        registry.register(1);
+
+        assertThat(opened).extracting(e -> e.completed).containsExactly(true, false, false);
+        assertThat(registry.isConnected(1)).isTrue();
+    }
+
+    @Test
+    void stalledClientDoesNotBlockSendersAndIsDroppedOnceBehind() throws InterruptedException {
+        registry.register(1);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            registry.send(1, NotificationService.NOTIFICATION_EVENT, "first");
+            assertThat(clientStalled.await(5, TimeUnit.SECONDS)).isTrue();
+            // The drain is stuck writing "first"; the queue takes 4 more, the next one overflows
+            for (int i = 0; i < 5; i++) {
+                registry.send(1, NotificationService.NOTIFICATION_EVENT, "event " + i);
+            }
+        });
+
+        assertThat(registry.isConnected(1)).isFalse();
+        assertThat(opened.get(0).completed).isTrue();
+    }
+
+    private class StubEmitter extends SseEmitter {
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            clientStalled.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.RefreshTokenRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private RefreshTokenRepo refreshTokenRepo;
+    private RefreshTokenService service;
+    private final Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepo = mock(RefreshTokenRepo.class);
+        service = new RefreshTokenService(refreshTokenRepo);
+    }
+
+    @Test
+    void tokenIsAcceptedOnceThenRejectedFromMemory() {
+        String tokenId = UUID.randomUUID().toString();
+        when(refreshTokenRepo.revoke(eq(UUID.fromString(tokenId)), any())).thenReturn(true);
+
+        assertThat(service.consume(tokenId, expiresAt)).isTrue();
+        assertThat(service.consume(tokenId, expiresAt)).isFalse();
+        verify(refreshTokenRepo, times(1)).revoke(any(), any());
+    }
+
+    @Test
+    void tokenUsedOnAnotherInstanceIsRejectedByTheInsert() {
+        when(refreshTokenRepo.revoke(any(), any())).thenReturn(false);
+
+        assertThat(service.consume(UUID.randomUUID().toString(), expiresAt)).isFalse();
+    }
+
+    @Test
+    void revocationsAreRebuiltOnStartupAndMissingIdsRejected() {
+        UUID loggedOut = UUID.randomUUID();
+        doAnswer(invocation -> {
+            Map<UUID, Long> into = invocation.getArgument(0);
+            into.put(loggedOut, expiresAt.getTime());
+            return null;
+        }).when(refreshTokenRepo).loadActive(any());
+
+        service.load();
+
+        assertThat(service.consume(loggedOut.toString(), expiresAt)).isFalse();
+        assertThat(service.consume(null, expiresAt)).isFalse();
+        verify(refreshTokenRepo, never()).revoke(any(), any());
+    }
+}
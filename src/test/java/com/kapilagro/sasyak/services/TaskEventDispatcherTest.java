@@ -0,0 +1,230 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.Notification;
+import com.kapilagro.sasyak.model.TaskEvent;
+import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.repository.NotificationRepo;
+import com.kapilagro.sasyak.repository.TaskEventRepo;
+import com.kapilagro.sasyak.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TaskEventDispatcherTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+    private TaskEventRepo taskEventRepo;
+    private NotificationRepo notificationRepo;
+    private UserRepo userRepo;
+    private TaskEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        taskEventRepo = mock(TaskEventRepo.class);
+        notificationRepo = mock(NotificationRepo.class);
+        userRepo = mock(UserRepo.class);
+        dispatcher = new TaskEventDispatcher(taskEventRepo, notificationRepo, userRepo,
+                mock(NotificationService.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 200);
+        ReflectionTestUtils.setField(dispatcher, "coalesceWindowSeconds", 300);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 5);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMs", 5000L);
+
+        when(userRepo.getUsersByIds(anyCollection())).thenReturn(Map.of(
+                1, User.builder().userId(1).name("Meera").role("MANAGER").build(),
+                2, User.builder().userId(2).name("Ravi").role("SUPERVISOR").managerId(1).build(),
+                3, User.builder().userId(3).name("Anil").role("SUPERVISOR").managerId(1).build()));
+    }
+
+    @Test
+    void batchIsResolvedWithOneLookupAndOneInsert() {
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(
+                event(10, TaskEvent.TASK_CREATED, 2, 2, null, "submitted"),
+                event(11, TaskEvent.STATUS_CHANGED, 1, 2, 3, "approved"),
+                event(12, TaskEvent.ADVICE_ADDED, 1, 2, 2, "approved")));
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(3);
+
+        verify(userRepo, times(1)).getUsersByIds(anyCollection());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo, times(1)).saveAll(captor.capture());
+        verify(taskEventRepo).deleteByIds(List.of(10L, 11L, 12L));
+
+        List<Notification> sent = captor.getValue();
+        assertThat(sent).extracting(Notification::getUserId).containsExactly(1, 2, 3, 2);
+        assertThat(sent.get(0).getMessage()).isEqualTo(
+                "Ravi has created a new 'SCOUTING' task. Click here to see task and give advice.");
+        assertThat(sent.get(1).getMessage()).isEqualTo("Meera has updated the status of your task to approved");
+        assertThat(sent.get(3).getMessage()).isEqualTo("Meera has provided advice on your task.");
+    }
+
+    @Test
+    void repeatedUpdatesToATaskBecomeOneNotification() {
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(
+                onTask(7, event(30, TaskEvent.STATUS_CHANGED, 1, 2, 3, "approved")),
+                onTask(7, event(31, TaskEvent.ADVICE_ADDED, 1, 2, 3, "approved")),
+                onTask(7, event(32, TaskEvent.STATUS_CHANGED, 1, 2, 3, "implemented"))));
+
+        dispatcher.dispatchBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo).saveAll(captor.capture());
+        List<Notification> sent = captor.getValue();
+        assertThat(sent).extracting(Notification::getUserId).containsExactly(2, 3);
+        assertThat(sent).allSatisfy(n -> {
+            assertThat(n.getChangeCount()).isEqualTo(3);
+            assertThat(n.getTitle()).isEqualTo("Task updated (3 changes)");
+        });
+        assertThat(sent.get(0).getMessage()).isEqualTo("Meera has updated the status of your task to implemented");
+    }
+
+    @Test
+    void zeroWindowSendsOneNotificationPerUpdate() {
+        ReflectionTestUtils.setField(dispatcher, "coalesceWindowSeconds", 0);
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(
+                onTask(7, event(33, TaskEvent.STATUS_CHANGED, 1, 2, null, "approved")),
+                onTask(7, event(34, TaskEvent.STATUS_CHANGED, 1, 2, null, "implemented"))));
+
+        dispatcher.dispatchBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Notification::getTitle)
+                .containsExactly("Task Status Updated", "Task Status Updated");
+        verify(notificationRepo, never()).mergeIntoRecent(anyList(), anyInt());
+    }
+
+    @Test
+    void assignmentIsNotCoalescedWithUpdates() {
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(
+                onTask(7, event(35, TaskEvent.TASK_CREATED, 1, 1, 3, "submitted")),
+                onTask(7, event(36, TaskEvent.STATUS_CHANGED, 2, 1, 3, "approved"))));
+
+        dispatcher.dispatchBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> saved = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Notification::getUserId, Notification::getTitle).containsExactly(
+                tuple(3, "New Task Assigned"), tuple(1, "Task Status Updated"), tuple(3, "Task Status Updated"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> mergeable = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo).mergeIntoRecent(mergeable.capture(), eq(300));
+        assertThat(mergeable.getValue()).extracting(Notification::getTitle).containsOnly("Task Status Updated");
+    }
+
+    @Test
+    void updatesMergedIntoRecentNotificationsAreNotInserted() {
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(
+                onTask(7, event(40, TaskEvent.STATUS_CHANGED, 1, 2, 3, "approved"))));
+        when(notificationRepo.mergeIntoRecent(anyList(), eq(300))).thenReturn(List.of(
+                Notification.builder().userId(2).taskId(7).changeCount(2).build()));
+
+        dispatcher.dispatchBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Notification::getUserId).containsExactly(3);
+    }
+
+    @Test
+    void failingEventIsRetriedAloneAndCountedWithoutBlockingTheRest() {
+        TaskEvent good = event(50, TaskEvent.STATUS_CHANGED, 1, 2, null, "approved");
+        TaskEvent poison = event(51, TaskEvent.STATUS_CHANGED, 1, 2, null, "rejected");
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(good, poison));
+        when(taskEventRepo.claimById(50L)).thenReturn(Optional.of(good));
+        when(taskEventRepo.claimById(51L)).thenReturn(Optional.of(poison));
+        when(notificationRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(n -> n.getTaskId() == poison.getTaskId())) {
+                throw new IllegalStateException("constraint violation");
+            }
+            return rows;
+        });
+
+        dispatcher.dispatch();
+
+        verify(taskEventRepo).deleteByIds(List.of(50L));
+        verify(taskEventRepo, never()).deleteByIds(List.of(51L));
+        verify(taskEventRepo).recordFailure(eq(51L), eq(5), eq(5000L), contains("constraint violation"));
+    }
+
+    @Test
+    void failedFullBatchEndsThePollInsteadOfRetryingAtOnce() {
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 1);
+        TaskEvent stuck = event(52, TaskEvent.STATUS_CHANGED, 1, 2, null, "approved");
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(stuck));
+        when(taskEventRepo.claimById(52L)).thenReturn(Optional.of(stuck));
+        when(notificationRepo.saveAll(anyList())).thenThrow(new IllegalStateException("lock timeout"));
+
+        dispatcher.dispatch();
+
+        // Once for the batch, once for the one-by-one pass; the next attempt waits for its backoff
+        verify(taskEventRepo, times(2)).claimBatch(1);
+        verify(taskEventRepo, times(1)).recordFailure(eq(52L), eq(5), eq(5000L), contains("lock timeout"));
+    }
+
+    @Test
+    void recipientsThatNoLongerExistAreSkipped() {
+        when(taskEventRepo.claimBatch(anyInt())).thenReturn(List.of(
+                event(60, TaskEvent.STATUS_CHANGED, 1, 2, 42, "approved")));
+
+        dispatcher.dispatchBatch();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepo).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(Notification::getUserId).containsExactly(2);
+        verify(userRepo, times(1)).getUsersByIds(anyCollection());
+        verify(taskEventRepo).deleteByIds(List.of(60L));
+    }
+
+    @Test
+    void implementationNotifiesTheCreatorsManager() {
+        List<Notification> sent = dispatcher.toNotifications(
+                event(20, TaskEvent.IMPLEMENTED, 2, 2, 2, "implemented"),
+                userRepo.getUsersByIds(List.of()));
+
+        assertThat(sent).extracting(Notification::getUserId).containsExactly(1);
+        assertThat(sent.get(0).getTitle()).isEqualTo("Task Implemented");
+    }
+
+    private TaskEvent onTask(int taskId, TaskEvent event) {
+        event.setTaskId(taskId);
+        return event;
+    }
+
+    private TaskEvent event(long id, String type, int actorId, int createdById, Integer assignedToId, String status) {
+        return TaskEvent.builder()
+                .eventId(id)
+                .tenantId(tenantId)
+                .taskId(100 + (int) id)
+                .eventType(type)
+                .actorId(actorId)
+                .createdById(createdById)
+                .assignedToId(assignedToId)
+                .taskType("SCOUTING")
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.kapilagro.sasyak.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.kapilagro.sasyak.model.TaskDTO;
+import com.kapilagro.sasyak.repository.TaskRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class TaskExportServiceTest {
+
+    @Test
+    void csvFieldsAreQuotedOnlyWhenNeeded() {
+        assertThat(TaskExportService.csv("plain")).isEqualTo("plain");
+        assertThat(TaskExportService.csv(null)).isEmpty();
+        assertThat(TaskExportService.csv("a,b")).isEqualTo("\"a,b\"");
+        assertThat(TaskExportService.csv("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(TaskExportService.csv("two\nlines")).isEqualTo("\"two\nlines\"");
+        assertThat(TaskExportService.csv("cr\rhere")).isEqualTo("\"cr\rhere\"");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void csvExportWritesHeaderAndEscapedRows() throws Exception {
+        UUID tenantId = UUID.randomUUID();
+        TaskRepo taskRepo = mock(TaskRepo.class);
+        doAnswer(invocation -> {
+            Consumer<TaskDTO> consumer = invocation.getArgument(3);
+            consumer.accept(TaskDTO.builder()
+                    .id(7)
+                    .taskType("SCOUTING")
+                    .status("submitted")
+                    .description("Leaf spots, \"yellow\" edges")
+                    .createdBy("Ravi")
+                    .detailsJson("{\"row\":1}")
+                    .build());
+            return null;
+        }).when(taskRepo).exportTasks(eq(tenantId), isNull(), isNull(), any());
+        TaskExportService exportService = new TaskExportService(taskRepo, new ObjectMapper(), mock(PlatformTransactionManager.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(tenantId, null, null, TaskExportService.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[0]).startsWith("id,task_type,status,description,");
+        assertThat(lines[1]).isEqualTo("7,SCOUTING,submitted,\"Leaf spots, \"\"yellow\"\" edges\",Ravi,,,,"
+                + "\"{\"\"row\"\":1}\",,");
+    }
+}
@@ -0,0 +1,74 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.Task;
+import com.kapilagro.sasyak.model.TaskDTO;
+import com.kapilagro.sasyak.repository.TaskEventRepo;
+import com.kapilagro.sasyak.repository.TaskRepo;
+import com.kapilagro.sasyak.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class TaskServiceTest {
+
+    private UserRepo userRepo;
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepo.class);
+        taskService = new TaskService(mock(TaskRepo.class), userRepo, mock(TaskEventRepo.class));
+    }
+
+    @Test
+    void convertToDTOsIssuesOneUserQueryPerPage() {
+        UUID tenantId = UUID.randomUUID();
+        List<Task> page = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            page.add(Task.builder()
+                    .taskId(i)
+                    .tenantId(tenantId)
+                    .createdById(1 + i % 5)
+                    .assignedToId(i % 3 == 0 ? null : 10 + i % 4)
+                    .taskType("SCOUTING")
+                    .status("submitted")
+                    .build());
+        }
+        when(userRepo.getUserNamesByIds(anyCollection())).thenReturn(Map.of(
+                1, "Asha", 2, "Bala", 3, "Chitra", 4, "Dev", 5, "Esha",
+                10, "Farid", 11, "Gita", 12, "Hari", 13, "Indu"));
+
+        List<TaskDTO> dtos = taskService.convertToDTOs(page);
+
+        verify(userRepo, times(1)).getUserNamesByIds(Set.of(1, 2, 3, 4, 5, 10, 11, 12, 13));
+        verify(userRepo, never()).getUserById(anyInt());
+        verifyNoMoreInteractions(userRepo);
+
+        assertThat(dtos).hasSize(50);
+        assertThat(dtos.get(0).getCreatedBy()).isEqualTo("Bala");
+        assertThat(dtos.get(0).getAssignedTo()).isEqualTo("Gita");
+        assertThat(dtos.get(2).getAssignedTo()).isNull();
+    }
+
+    @Test
+    void convertToDTOsFallsBackToUnknownForMissingUsers() {
+        Task task = Task.builder().taskId(7).createdById(99).assignedToId(100).build();
+        when(userRepo.getUserNamesByIds(anyCollection())).thenReturn(Map.of());
+
+        TaskDTO dto = taskService.convertToDTO(task);
+
+        assertThat(dto.getCreatedBy()).isEqualTo("Unknown");
+        assertThat(dto.getAssignedTo()).isEqualTo("Unknown");
+        verify(userRepo, times(1)).getUserNamesByIds(anyCollection());
+    }
+}
@@ -0,0 +1,49 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.repository.NotificationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UnreadCountCacheTest {
+
+    private NotificationRepo notificationRepo;
+    private UnreadCountCache cache;
+
+    @BeforeEach
+    void setUp() {
+        notificationRepo = mock(NotificationRepo.class);
+        cache = new UnreadCountCache(notificationRepo);
+    }
+
+    @Test
+    void seedsOnceThenTracksWritesInMemory() {
+        when(notificationRepo.countUnread(7)).thenReturn(3);
+
+        assertThat(cache.get(7)).isEqualTo(3);
+        cache.increment(7, 1);
+        cache.increment(7, -1);
+        cache.increment(7, 1);
+        assertThat(cache.get(7)).isEqualTo(4);
+        cache.reset(7);
+        assertThat(cache.get(7)).isZero();
+
+        verify(notificationRepo, times(1)).countUnread(7);
+    }
+
+    @Test
+    void uncachedUsersAreSeededOnReadAndReconcileFixesDrift() {
+        cache.increment(8, 1);
+        when(notificationRepo.countUnread(8)).thenReturn(5);
+        assertThat(cache.get(8)).isEqualTo(5);
+
+        when(notificationRepo.countUnreadByUser()).thenReturn(Map.of(8, 2));
+        cache.reconcile();
+
+        assertThat(cache.get(8)).isEqualTo(2);
+    }
+}
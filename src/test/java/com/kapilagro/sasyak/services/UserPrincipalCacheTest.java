@@ -0,0 +1,53 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPrincipalCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private UserPrincipalCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, User> loader = email -> {
+        loads.incrementAndGet();
+        return "gone@example.com".equals(email) ? null
+                : User.builder().userId(7).email(email).name("Asha").role("MANAGER").build();
+    };
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new UserPrincipalCache(registry, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void repeatLookupsHitTheCacheAndReturnCopies() {
+        User first = cache.get("asha@example.com", loader);
+        first.setRole("ADMIN");
+        User second = cache.get("asha@example.com", loader);
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getRole()).isEqualTo("MANAGER");
+        assertThat(registry.get("cache.gets").tag("cache", "userPrincipals").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void evictedAndUnknownUsersAreReloaded() {
+        cache.get("asha@example.com", loader);
+        cache.evictUser(7);
+        cache.get("asha@example.com", loader);
+
+        assertThat(cache.get("gone@example.com", loader)).isNull();
+        assertThat(cache.get("gone@example.com", loader)).isNull();
+        assertThat(loads).hasValue(4);
+    }
+}
@@ -0,0 +1,76 @@
+package com.kapilagro.sasyak.services;
+
+import com.kapilagro.sasyak.model.User;
+import com.kapilagro.sasyak.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserServiceTest {
+
+    private UserRepo userRepo;
+    private UserPrincipalCache userPrincipalCache;
+    private PasswordEncoder passwordEncoder;
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepo.class);
+        userPrincipalCache = mock(UserPrincipalCache.class);
+        passwordEncoder = spy(new BCryptPasswordEncoder(5));
+        userService = new UserService(passwordEncoder);
+        ReflectionTestUtils.setField(userService, "userRepo", userRepo);
+        ReflectionTestUtils.setField(userService, "userPrincipalCache", userPrincipalCache);
+    }
+
+    private User storedUser(String hash) {
+        return User.builder().userId(7).email("asha@example.com").role("MANAGER").password(hash).build();
+    }
+
+    @Test
+    void loginLooksUpTheUserOnceAndKeepsCurrentHashes() {
+        String hash = new BCryptPasswordEncoder(5).encode("secret");
+        when(userRepo.getUserByEmail("asha@example.com")).thenReturn(storedUser(hash));
+
+        MyUserPrincipal principal = userService.authenticate("asha@example.com", "secret");
+
+        assertThat(principal.getUser().getUserId()).isEqualTo(7);
+        verify(userRepo, times(1)).getUserByEmail("asha@example.com");
+        verify(userRepo, never()).replacePasswordHash(anyInt(), any(), any());
+    }
+
+    @Test
+    void lowerCostHashesAreUpgradedOnLogin() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("secret");
+        when(userRepo.getUserByEmail("asha@example.com")).thenReturn(storedUser(oldHash));
+        when(userRepo.replacePasswordHash(eq(7), eq(oldHash), anyString())).thenReturn(true);
+
+        MyUserPrincipal principal = userService.authenticate("asha@example.com", "secret");
+
+        assertThat(principal.getPassword()).startsWith("$2a$05$");
+        verify(userPrincipalCache).evictUser(7);
+    }
+
+    @Test
+    void wrongPasswordOrUnknownEmailIsRejected() {
+        when(userRepo.getUserByEmail("asha@example.com"))
+                .thenReturn(storedUser(new BCryptPasswordEncoder(5).encode("secret")));
+
+        assertThat(userService.authenticate("asha@example.com", "wrong")).isNull();
+        assertThat(userService.authenticate("nobody@example.com", "secret")).isNull();
+        verify(userRepo, never()).replacePasswordHash(anyInt(), any(), any());
+    }
+
+    @Test
+    void unknownEmailStillRunsAHashCheck() {
+        assertThat(userService.authenticate("nobody@example.com", "secret")).isNull();
+
+        verify(passwordEncoder, times(1)).matches(eq("secret"), startsWith("$2a$05$"));
+    }
+}
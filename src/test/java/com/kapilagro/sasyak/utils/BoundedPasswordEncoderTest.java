@@ -0,0 +1,84 @@
+package com.kapilagro.sasyak.utils;
+
+import com.kapilagro.sasyak.exceptions.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    // Stand-in for BCrypt that blocks until the test lets it finish
+    private final PasswordEncoder slow = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void hashesOnThePoolAndRecordsLatency() {
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(2), registry);
+        release.countDown();
+
+        assertThat(encoder.encode("secret")).isEqualTo("hash:secret");
+        assertThat(encoder.matches("secret", "hash:secret")).isTrue();
+        assertThat(registry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWithRetryAfterWhenPoolAndQueueAreFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(slow, 1, 1, Duration.ofSeconds(3), registry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("auth.password.queue.depth").gauge().value() < 1) {
+            if (System.nanoTime() > deadline) {
+                fail("second hash was never queued");
+            }
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("c"))
+                .isInstanceOf(PasswordHashingBusyException.class)
+                .extracting(e -> ((PasswordHashingBusyException) e).getRetryAfterSeconds())
+                .isEqualTo(3L);
+        assertThat(registry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hash:a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hash:b");
+    }
+}
@@ -0,0 +1,90 @@
+package com.kapilagro.sasyak.utils;
+
+import com.kapilagro.sasyak.services.AuthEpochService;
+import com.kapilagro.sasyak.services.MyUserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+    private final UserDetails user = User.withUsername("asha@example.com").password("x").roles("MANAGER").build();
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "SECRET_kEY", "KA92Ab8OphARt/lQwY6u5Zn+LkwISP6m9ABjI3JQfVo=");
+        ReflectionTestUtils.setField(jwtUtil, "REFRESH_SECRET_KEY", "HyaFfpChC8IekjRGc5loPYid4/uHekm0dBmlJaYnvq0=");
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", 100L);
+        jwtUtil.init();
+    }
+
+    @Test
+    void accessTokenIsVerifiedOnceThenServedFromCache() {
+        String token = jwtUtil.generateAccessToken(user);
+
+        Claims first = jwtUtil.parseAccessToken(token);
+        Claims second = jwtUtil.parseAccessToken(token);
+
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.isValidFor(first, user)).isTrue();
+        assertThat(jwtUtil.validateToken(token, user)).isTrue();
+    }
+
+    @Test
+    void tamperedOrRefreshTokensAreRejected() {
+        String token = jwtUtil.generateAccessToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.parseAccessToken(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.parseAccessToken(jwtUtil.generateRefreshToken(user)))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void claimsTokenCarriesUserAndGoesStaleWhenEpochMoves() {
+        AuthEpochService epochs = mock(AuthEpochService.class);
+        ReflectionTestUtils.setField(jwtUtil, "claimsTokenEnabled", true);
+        ReflectionTestUtils.setField(jwtUtil, "authEpochService", epochs);
+        UUID tenantId = UUID.randomUUID();
+        com.kapilagro.sasyak.model.User stored = com.kapilagro.sasyak.model.User.builder()
+                .userId(7).email("asha@example.com").name("Asha").role("manager")
+                .tenantId(tenantId).managerId(3).password("hash").build();
+        MyUserPrincipal principal = mock(MyUserPrincipal.class);
+        when(principal.getUser()).thenReturn(stored);
+        when(principal.getUsername()).thenReturn(stored.getEmail());
+        when(epochs.currentEpoch(7)).thenReturn(2L);
+
+        Claims claims = jwtUtil.parseAccessToken(jwtUtil.generateAccessToken(principal));
+        com.kapilagro.sasyak.model.User user = jwtUtil.userFromClaims(claims);
+
+        assertThat(jwtUtil.isClaimsToken(claims)).isTrue();
+        assertThat(user.getUserId()).isEqualTo(7);
+        assertThat(user.getTenantId()).isEqualTo(tenantId);
+        assertThat(user.getManagerId()).isEqualTo(3);
+        assertThat(user.getRole()).isEqualTo("manager");
+        assertThat(user.getPassword()).isNull();
+
+        when(epochs.isCurrent(7, 2L)).thenReturn(true);
+        assertThat(jwtUtil.isCurrent(claims)).isTrue();
+        when(epochs.isCurrent(7, 2L)).thenReturn(false);
+        assertThat(jwtUtil.isCurrent(claims)).isFalse();
+    }
+
+    @Test
+    void plainTokensAreNotClaimsTokens() {
+        assertThat(jwtUtil.isClaimsToken(jwtUtil.parseAccessToken(jwtUtil.generateAccessToken(user)))).isFalse();
+    }
+}